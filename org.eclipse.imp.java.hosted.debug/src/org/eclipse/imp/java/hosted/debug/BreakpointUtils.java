@@ -0,0 +1,355 @@
+/*******************************************************************************
+* Copyright (c) 2007 IBM Corporation.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    Robert Fuhrer (rfuhrer@watson.ibm.com) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.imp.java.hosted.ActivationTrace;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.imp.java.hosted.TypeNameResolver;
+import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaStratumLineBreakpoint;
+import org.eclipse.jdt.debug.core.JDIDebugModel;
+
+public class BreakpointUtils {
+    /**
+     * Session property of a stratum source file holding the line table against which its
+     * breakpoints were last validated
+     */
+    private static final QualifiedName VALIDATED_LINE_TABLE= new QualifiedName(Activator.PLUGIN_ID, "validatedLineTable");
+
+    /**
+     * @return true if the given line of the given stratum source file maps to some line
+     * of generated code in the default stratum of its SMAPs
+     * @see #validateLineNumber(IFile, Integer, String)
+     */
+    public static boolean validateLineNumber(IFile origSrcFile, Integer origSrcLineNumber) {
+        return validateLineNumber(origSrcFile, origSrcLineNumber, null);
+    }
+
+    /**
+     * @return true if the given line of the given stratum source file maps to some line
+     * of generated code. Uses the line table cached (and persisted) by StratumLineTableCache,
+     * so the generated code need not be re-parsed on every call.
+     * @param stratumID the stratum of interest, or null to use each SMAP's default stratum
+     */
+    public static boolean validateLineNumber(IFile origSrcFile, Integer origSrcLineNumber, String stratumID) {
+        long start= ActivationTrace.start();
+        try {
+            StratumLineTable lineTable= StratumLineTableCache.getInstance().getLineTable(origSrcFile, stratumID);
+
+            if (lineTable != null && origSrcLineNumber != null && lineTable.isValidLine(origSrcLineNumber.intValue()))
+                return true;
+
+            return false;
+        } finally {
+            ActivationTrace.end("BreakpointUtils.validateLineNumber(IFile,Integer,String)", start);
+        }
+    }
+
+    /**
+     * @see #getValidLineNumbers(IFile, String)
+     */
+    public static BitSet getValidLineNumbers(IFile origSrcFile) {
+        return getValidLineNumbers(origSrcFile, null);
+    }
+
+    /**
+     * @return a bitmap, indexed by line number, of the lines of the given stratum source file
+     * that can take a breakpoint, e.g. for rendering in an editor ruler. Empty if the line
+     * mapping for the file can't be determined.
+     * @param stratumID the stratum of interest, or null to use each SMAP's default stratum
+     */
+    public static BitSet getValidLineNumbers(IFile origSrcFile, String stratumID) {
+        long start= ActivationTrace.start();
+        try {
+            StratumLineTable lineTable= StratumLineTableCache.getInstance().getLineTable(origSrcFile, stratumID);
+
+            return (lineTable != null) ? lineTable.getValidLines() : new BitSet();
+        } finally {
+            ActivationTrace.end("BreakpointUtils.getValidLineNumbers(IFile,String)", start);
+        }
+    }
+
+    /**
+     * @see #findNearestValidLine(IFile, int, String)
+     */
+    public static int findNearestValidLine(IFile origSrcFile, int origSrcLineNumber) {
+        return findNearestValidLine(origSrcFile, origSrcLineNumber, null);
+    }
+
+    /**
+     * @return the line of the given stratum source file closest to the given line that can
+     * take a breakpoint, or -1 if there is none
+     * @param stratumID the stratum of interest, or null to use each SMAP's default stratum
+     */
+    public static int findNearestValidLine(IFile origSrcFile, int origSrcLineNumber, String stratumID) {
+        long start= ActivationTrace.start();
+        try {
+            StratumLineTable lineTable= StratumLineTableCache.getInstance().getLineTable(origSrcFile, stratumID);
+
+            return (lineTable != null) ? lineTable.getNearestValidLine(origSrcLineNumber) : -1;
+        } finally {
+            ActivationTrace.end("BreakpointUtils.findNearestValidLine(IFile,int,String)", start);
+        }
+    }
+
+    public static  IFile javaFileForRootSourceFile(IFile rootSrcFile) {
+        IProject project = rootSrcFile.getProject();
+        String rootSrcName= rootSrcFile.getName();
+
+        return project.getFile(rootSrcFile.getProjectRelativePath().removeLastSegments(1).append(
+                rootSrcName.substring(0, rootSrcName.lastIndexOf('.')) + ".java"));
+    }
+
+    // MV -- This method is called from smapifier to reset the breakpoint in the
+    // Java file when a new build has been done.
+    // RMF 5/9/2009 - doesn't seem to be true (at least for LEG) - this method is
+    // never called, and yet the breakpoint markers' line #'s get updated properly.
+    /**
+     * @return the fully-qualified name of the Java type generated from the given source file,
+     * as determined (and cached) by the TypeNameResolver
+     */
+    public static String getTypeName(IFile origSrcFile) {
+        long start= ActivationTrace.start();
+        try {
+            return TypeNameResolver.getInstance().getTypeName(origSrcFile);
+        } finally {
+            ActivationTrace.end("BreakpointUtils.getTypeName(IFile)", start);
+        }
+    }
+
+    /**
+     * Brings the stratum breakpoints on the given file up to date after a build, keeping
+     * each breakpoint's own stratum.
+     * @see #resetJavaBreakpoints(IFile, String)
+     */
+    public static void resetJavaBreakpoints(IFile origSrcFile) {
+        resetJavaBreakpoints(origSrcFile, null);
+    }
+
+    /**
+     * Brings the stratum breakpoints on the given file up to date after a build. If the
+     * StratumBreakpointLineTracker has kept the breakpoints' lines in step with the edits
+     * to the file, only the breakpoints on edited lines are re-validated, unless the file's
+     * line table has changed since the last reset, in which case all of them are. Otherwise,
+     * the breakpoints on lines that still map to generated code are re-created, and the
+     * others are removed.
+     * @param stratumID the stratum of the re-created breakpoints, or null to keep each
+     * breakpoint's own stratum
+     */
+    public static void resetJavaBreakpoints(IFile origSrcFile, String stratumID) {
+        long start= ActivationTrace.start();
+        try {
+            doResetJavaBreakpoints(origSrcFile, stratumID);
+        } finally {
+            ActivationTrace.end("BreakpointUtils.resetJavaBreakpoints(IFile,String)", start);
+        }
+    }
+
+    private static void doResetJavaBreakpoints(IFile origSrcFile, String stratumID) {
+        boolean tableChanged= rememberLineTable(origSrcFile, stratumID);
+        BitSet dirtyLines= StratumBreakpointLineTracker.getInstance().takeDirtyLines(origSrcFile);
+
+        if (dirtyLines != null) {
+            // The tracker has updated the breakpoint line numbers as the file's edits were
+            // saved; unless the generated code's line mapping changed as well, only the
+            // breakpoints the edits affected need re-validating.
+            revalidateBreakpoints(origSrcFile, tableChanged ? null : dirtyLines, stratumID);
+            return;
+        }
+        recreateBreakpoints(origSrcFile, stratumID);
+    }
+
+    /**
+     * Records the line table against which the breakpoints on the given file are being
+     * validated, in a session property of the file.
+     * @return true if it differs from the one recorded by the previous call
+     */
+    private static boolean rememberLineTable(IFile origSrcFile, String stratumID) {
+        StratumLineTable lineTable= StratumLineTableCache.getInstance().getLineTable(origSrcFile, stratumID);
+
+        try {
+            if (origSrcFile.getSessionProperty(VALIDATED_LINE_TABLE) == lineTable) {
+                return false;
+            }
+            origSrcFile.setSessionProperty(VALIDATED_LINE_TABLE, lineTable);
+        } catch (CoreException e) {
+            // The file no longer exists; treat its line table as changed
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the stratum breakpoints on the given file by new ones on the same lines,
+     * dropping those on lines that no longer map to any generated code. The breakpoints
+     * are removed and created in a single workspace operation.
+     */
+    private static void recreateBreakpoints(final IFile origSrcFile, final String stratumID) {
+        final IBreakpointManager manager= DebugPlugin.getDefault().getBreakpointManager();
+        IBreakpoint[] breakpoints= manager.getBreakpoints(JDIDebugModel.getPluginIdentifier());
+        final List<IJavaStratumLineBreakpoint> existing= new ArrayList<IJavaStratumLineBreakpoint>();
+
+        for(int i= 0; i < breakpoints.length; i++) {
+            IJavaStratumLineBreakpoint breakpoint= JavaBreakpointHandler.asStratumBreakpointOn(breakpoints[i], origSrcFile);
+
+            if (breakpoint != null) {
+                existing.add(breakpoint);
+            }
+        }
+        if (existing.isEmpty()) {
+            return;
+        }
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+        try {
+            workspace.run(new IWorkspaceRunnable() {
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    // Read the breakpoints' attributes first, since removing them deletes their markers
+                    List<IBreakpoint> created= new ArrayList<IBreakpoint>();
+                    int[] lines= new int[existing.size()];
+                    String[] strata= new String[existing.size()];
+                    boolean[] enabled= new boolean[existing.size()];
+
+                    for(int i= 0; i < lines.length; i++) {
+                        IJavaStratumLineBreakpoint breakpoint= existing.get(i);
+
+                        lines[i]= breakpoint.getLineNumber();
+                        strata[i]= (stratumID != null) ? stratumID : breakpoint.getStratum();
+                        enabled[i]= breakpoint.isEnabled();
+                    }
+                    manager.removeBreakpoints(existing.toArray(new IBreakpoint[existing.size()]), true);
+                    for(int i= 0; i < lines.length; i++) {
+                        if (validateLineNumber(origSrcFile, Integer.valueOf(lines[i]), strata[i])) {
+                            IBreakpoint breakpoint= JavaBreakpointHandler.createStratumBreakpoint(origSrcFile, strata[i], lines[i], false);
+
+                            breakpoint.setEnabled(enabled[i]);
+                            created.add(breakpoint);
+                        }
+                    }
+                    manager.addBreakpoints(created.toArray(new IBreakpoint[created.size()]));
+                }
+            }, workspace.getRuleFactory().markerRule(origSrcFile), IWorkspace.AVOID_UPDATE, null);
+        } catch (CoreException e) {
+            Activator.logException("Unable to reset breakpoints on file " + origSrcFile.getName(), e);
+        }
+    }
+
+    /**
+     * Removes the breakpoints on the given file that no longer map to any generated code.
+     */
+    public static void revalidateBreakpoints(IFile origSrcFile) {
+        revalidateBreakpoints(origSrcFile, null, null);
+    }
+
+    /**
+     * @see #revalidateBreakpoints(IFile, BitSet, String)
+     */
+    public static void revalidateBreakpoints(IFile origSrcFile, BitSet lines) {
+        revalidateBreakpoints(origSrcFile, lines, null);
+    }
+
+    /**
+     * Removes the breakpoints on the given lines of the given file that no longer map to
+     * any generated code. Breakpoints on other lines are left untouched.
+     * @param lines the lines whose breakpoints to re-validate, or null for all of them
+     * @param stratumID the stratum of interest, or null to use each SMAP's default stratum
+     */
+    public static void revalidateBreakpoints(IFile origSrcFile, BitSet lines, String stratumID) {
+        long start= ActivationTrace.start();
+        try {
+            doRevalidateBreakpoints(origSrcFile, lines, stratumID);
+        } finally {
+            ActivationTrace.end("BreakpointUtils.revalidateBreakpoints(IFile,BitSet,String)", start);
+        }
+    }
+
+    private static void doRevalidateBreakpoints(IFile origSrcFile, BitSet lines, String stratumID) {
+    	if (lines != null && lines.isEmpty()) {
+    		return;
+    	}
+    	IBreakpointManager manager = DebugPlugin.getDefault().getBreakpointManager();
+    	List<IBreakpoint> invalid = new ArrayList<IBreakpoint>();
+    	try {
+    		IMarker[] markers = origSrcFile.findMarkers(IBreakpoint.LINE_BREAKPOINT_MARKER, true, IResource.DEPTH_ZERO);
+    		for (int i = 0; i < markers.length; i++) {
+    			int num = markers[i].getAttribute(IMarker.LINE_NUMBER, -1);
+    			if (num >= 0 && (lines == null || lines.get(num)) && !validateLineNumber(origSrcFile, Integer.valueOf(num), stratumID)) {
+    				IBreakpoint bkpt = manager.getBreakpoint(markers[i]);
+    				if (bkpt != null)
+    					invalid.add(bkpt);
+    			}
+    		}
+    		if (!invalid.isEmpty()) {
+    			manager.removeBreakpoints(invalid.toArray(new IBreakpoint[invalid.size()]), true);
+    		}
+    	} catch (CoreException e) {
+    		Activator.logException("Unable to revalidate breakpoints on file " + origSrcFile.getName(), e);
+    	}
+    }
+
+    // mmk: slightly modified from JDIDebugModel to support stratum line breakpoints
+	/**
+	 * Returns a Java line breakpoint that is already registered with the breakpoint
+	 * manager for a type with the given name at the given line number in the given resource.
+	 * 
+	 * @param resource the resource
+	 * @param typeName fully qualified type name
+	 * @param lineNumber line number
+	 * @return a Java line breakpoint that is already registered with the breakpoint
+	 *  manager for a type with the given name at the given line number or <code>null</code>
+	 * if no such breakpoint is registered
+	 * @exception CoreException if unable to retrieve the associated marker
+	 * 	attributes (line number).
+	 * @since 3.1
+	 */
+	public static IJavaLineBreakpoint lineBreakpointExists(IResource resource, String typeName, int lineNumber) throws CoreException {
+		long start= ActivationTrace.start();
+		try {
+			return findLineBreakpoint(resource, typeName, lineNumber);
+		} finally {
+			ActivationTrace.end("BreakpointUtils.lineBreakpointExists(IResource,String,int)", start);
+		}
+	}
+
+	private static IJavaLineBreakpoint findLineBreakpoint(IResource resource, String typeName, int lineNumber) throws CoreException {
+		String modelId= JDIDebugModel.getPluginIdentifier();
+		IBreakpointManager manager= DebugPlugin.getDefault().getBreakpointManager();
+		IBreakpoint[] breakpoints= manager.getBreakpoints(modelId);
+		for (int i = 0; i < breakpoints.length; i++) {
+			IJavaLineBreakpoint breakpoint = JavaBreakpointHandler.asStratumBreakpointOn(breakpoints[i], resource);
+			if (breakpoint != null) {
+				if (
+//					(breakpoint.getTypeName().equals(typeName) || breakpoint.getTypeName().startsWith(typeName + '$')) &&
+					breakpoint.getLineNumber() == lineNumber) {
+						return breakpoint;
+				}
+			}
+		}
+		return null;
+	}	
+}
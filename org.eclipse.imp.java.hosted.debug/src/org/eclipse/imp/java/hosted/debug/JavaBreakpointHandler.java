@@ -0,0 +1,378 @@
+package org.eclipse.imp.java.hosted.debug;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.imp.java.hosted.ActivationTrace;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.imp.services.IToggleBreakpointsHandler;
+import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaStratumLineBreakpoint;
+import org.eclipse.jdt.debug.core.JDIDebugModel;
+
+/**
+ * Base implementation for the IToggleBreakpointsHandler interface for languages that
+ * are hosted on a Java VM. The only piece of language-specific information this
+ * implementation requires is the name of the "stratum" (see JSR045 for a definition).
+ * Most likely this can be the same as the language ID (as defined in the language
+ * descriptor). This also requires that the language has arranged for an SMAP attribute
+ * to be placed in class files created from source. If the language compiler translates
+ * to Java source code (rather than directly to bytecode), the compiler should place
+ * "//#line" comments in the generated Java, which can be interpreted by the SMAPifier
+ * builder. The SMAPifier builder runs automatically if the language's nature configures
+ * the SMAP nature on its projects.
+ * @author rfuhrer@watson.ibm.com
+ */
+public abstract class JavaBreakpointHandler implements IToggleBreakpointsHandler {
+    private static final String JDT_DEBUG_PLUGIN_ID= "org.eclipse.jdt.debug";
+
+    private final String fStratumID;
+
+    public JavaBreakpointHandler(String stratumID) {
+        fStratumID= stratumID;
+    }
+
+    public void setLineBreakpoint(IFile file, int lineNumber) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            createStratumBreakpoint(file, lineNumber, true);
+        } catch (CoreException e) {
+            Activator.logException("Unable to set stratum breakpoint on file " + file.getName(), e);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.setLineBreakpoint(IFile,int)", start);
+        }
+    }
+
+    /**
+     * Creates stratum breakpoints on the given lines of each of the given files, e.g.
+     * when restoring or importing a saved set of breakpoints. All of the markers are
+     * created in a single workspace operation, and the resulting breakpoints are
+     * registered with the breakpoint manager in a single call. If the operation fails,
+     * any breakpoints it created are deleted again.
+     * @return the newly-created breakpoints; empty if the operation failed
+     */
+    public IBreakpoint[] setLineBreakpoints(final Map<IFile, int[]> lineNumbersByFile) throws CoreException {
+        final List<IBreakpoint> created= new ArrayList<IBreakpoint>();
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+        ISchedulingRule rule= null;
+        long start= ActivationTrace.start();
+        boolean succeeded= false;
+
+        for(IFile file: lineNumbersByFile.keySet()) {
+            rule= MultiRule.combine(rule, workspace.getRuleFactory().markerRule(file));
+        }
+        try {
+            workspace.run(new IWorkspaceRunnable() {
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    for(Map.Entry<IFile, int[]> entry: lineNumbersByFile.entrySet()) {
+                        IFile file= entry.getKey();
+                        int[] lineNumbers= entry.getValue();
+
+                        for(int i= 0; i < lineNumbers.length; i++) {
+                            created.add(createStratumBreakpoint(file, lineNumbers[i], false));
+                        }
+                    }
+                    DebugPlugin.getDefault().getBreakpointManager().addBreakpoints(created.toArray(new IBreakpoint[created.size()]));
+                }
+            }, rule, IWorkspace.AVOID_UPDATE, null);
+            succeeded= true;
+        } catch (CoreException e) {
+            Activator.logException("Unable to set stratum breakpoints on " + lineNumbersByFile.size() + " files", e);
+        } finally {
+            if (!succeeded) {
+                deleteBreakpoints(created);
+                created.clear();
+            }
+            ActivationTrace.end("JavaBreakpointHandler.setLineBreakpoints(Map)", start);
+        }
+        return created.toArray(new IBreakpoint[created.size()]);
+    }
+
+    /**
+     * Deletes the given breakpoints (and their markers), e.g. those created by a bulk
+     * operation that failed partway, whether or not they were registered.
+     */
+    private void deleteBreakpoints(List<IBreakpoint> breakpoints) {
+        for(IBreakpoint breakpoint: breakpoints) {
+            try {
+                breakpoint.delete();
+            } catch (CoreException e) {
+                Activator.logException("Unable to delete stratum breakpoint", e);
+            }
+        }
+    }
+
+    /**
+     * Creates stratum breakpoints on the given lines of the given file.
+     * @see #setLineBreakpoints(Map)
+     */
+    public IBreakpoint[] setLineBreakpoints(IFile file, int[] lineNumbers) throws CoreException {
+        return setLineBreakpoints(Collections.singletonMap(file, lineNumbers));
+    }
+
+    private IBreakpoint createStratumBreakpoint(IFile file, int lineNumber, boolean register) throws CoreException {
+        return createStratumBreakpoint(file, fStratumID, lineNumber, register);
+    }
+
+    static IBreakpoint createStratumBreakpoint(IFile file, String stratumID, int lineNumber, boolean register) throws CoreException {
+        StratumFileDescriptor desc= StratumFileDescriptor.forFile(file);
+        // JDIDebugModel adds its own entries to the attribute map, so each breakpoint gets a fresh one
+        Map<String, Object> attributes= new HashMap<String, Object>();
+
+        desc.fillAttributes(attributes);
+        return JDIDebugModel.createStratumBreakpoint(file, stratumID, desc.getSourceName(), desc.getStratumPath(), null, lineNumber, -1, -1, 0, register, attributes);
+    }
+
+    /**
+     * @return a bitmap, indexed by line number, of the lines of the given file that can take
+     * a breakpoint in this handler's stratum
+     * @see BreakpointUtils#getValidLineNumbers(IFile, String)
+     */
+    public BitSet getValidLineNumbers(IFile file) {
+        return BreakpointUtils.getValidLineNumbers(file, fStratumID);
+    }
+
+    /**
+     * Brings the stratum breakpoints on the given file up to date after a build, e.g. from
+     * the language's builder, re-creating them in this handler's stratum if need be.
+     * @see BreakpointUtils#resetJavaBreakpoints(IFile, String)
+     */
+    public void resetLineBreakpoints(IFile file) {
+        BreakpointUtils.resetJavaBreakpoints(file, fStratumID);
+    }
+
+    public void clearLineBreakpoint(IFile file, int lineNumber) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            IBreakpoint lineBkpt= findStratumBreakpoint(file, lineNumber);
+
+            if (lineBkpt != null) {
+                lineBkpt.delete();
+            }
+        } catch (CoreException e) {
+            Activator.logException("Unable to clear line breakpoint on file " + file.getName(), e);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.clearLineBreakpoint(IFile,int)", start);
+        }
+    }
+
+    public void disableLineBreakpoint(IFile file, int lineNumber) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            IBreakpoint lineBkpt= findStratumBreakpoint(file, lineNumber);
+
+            if (lineBkpt != null) {
+                lineBkpt.setEnabled(false);
+            }
+        } catch (CoreException e) {
+            Activator.logException("Unable to disable line breakpoint on file " + file.getName(), e);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.disableLineBreakpoint(IFile,int)", start);
+        }
+    }
+
+    public void enableLineBreakpoint(IFile file, int lineNumber) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            IBreakpoint lineBkpt= findStratumBreakpoint(file, lineNumber);
+
+            if (lineBkpt != null) {
+                lineBkpt.setEnabled(true);
+            }
+        } catch (CoreException e) {
+            Activator.logException("Unable to enable line breakpoint on file " + file.getName(), e);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.enableLineBreakpoint(IFile,int)", start);
+        }
+    }
+
+    /**
+     * Removes the stratum breakpoints on the given lines of the given file. All of the
+     * breakpoints are located in a single pass over the breakpoint manager, and are
+     * removed in a single workspace operation.
+     */
+    public void clearLineBreakpoints(IFile file, int[] lineNumbers) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            final IJavaLineBreakpoint[] lineBkpts= findStratumBreakpoints(file, lineNumbers);
+
+            if (lineBkpts.length > 0) {
+                runMarkerOperation(file, new IWorkspaceRunnable() {
+                    public void run(IProgressMonitor monitor) throws CoreException {
+                        DebugPlugin.getDefault().getBreakpointManager().removeBreakpoints(lineBkpts, true);
+                    }
+                });
+            }
+        } catch (CoreException e) {
+            Activator.logException("Unable to clear line breakpoints on file " + file.getName(), e);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.clearLineBreakpoints(IFile,int[])", start);
+        }
+    }
+
+    /**
+     * Disables the stratum breakpoints on the given lines of the given file, in a single
+     * pass over the breakpoint manager and a single workspace operation.
+     */
+    public void disableLineBreakpoints(IFile file, int[] lineNumbers) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            setEnabled(file, findStratumBreakpoints(file, lineNumbers), false);
+        } catch (CoreException e) {
+            Activator.logException("Unable to disable line breakpoints on file " + file.getName(), e);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.disableLineBreakpoints(IFile,int[])", start);
+        }
+    }
+
+    /**
+     * Enables the stratum breakpoints on the given lines of the given file, in a single
+     * pass over the breakpoint manager and a single workspace operation.
+     */
+    public void enableLineBreakpoints(IFile file, int[] lineNumbers) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            setEnabled(file, findStratumBreakpoints(file, lineNumbers), true);
+        } catch (CoreException e) {
+            Activator.logException("Unable to enable line breakpoints on file " + file.getName(), e);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.enableLineBreakpoints(IFile,int[])", start);
+        }
+    }
+
+    private void setEnabled(IFile file, final IJavaLineBreakpoint[] lineBkpts, final boolean enabled) throws CoreException {
+        if (lineBkpts.length == 0) {
+            return;
+        }
+        runMarkerOperation(file, new IWorkspaceRunnable() {
+            public void run(IProgressMonitor monitor) throws CoreException {
+                for(int i= 0; i < lineBkpts.length; i++) {
+                    if (lineBkpts[i].isEnabled() != enabled) {
+                        lineBkpts[i].setEnabled(enabled);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the given marker-modifying operation as a single workspace operation, so that
+     * only one resource delta is broadcast for all of the affected breakpoint markers.
+     */
+    private static void runMarkerOperation(IFile file, IWorkspaceRunnable op) throws CoreException {
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+        workspace.run(op, workspace.getRuleFactory().markerRule(file), IWorkspace.AVOID_UPDATE, null);
+    }
+
+    /**
+     * Returns a Java line breakpoint that is already registered with the breakpoint
+     * manager for a type with the given name at the given line number.
+     * 
+     * @param typeName fully qualified type name
+     * @param lineNumber line number
+     * @return a Java line breakpoint that is already registered with the breakpoint
+     *  manager for a type with the given name at the given line number or <code>null</code>
+     * if no such breakpoint is registered
+     * @exception CoreException if unable to retrieve the associated marker
+     *  attributes (line number).
+     */
+    public static IJavaLineBreakpoint findStratumBreakpoint(IResource resource, int lineNumber) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            return doFindStratumBreakpoint(resource, lineNumber);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.findStratumBreakpoint(IResource,int)", start);
+        }
+    }
+
+    private static IJavaLineBreakpoint doFindStratumBreakpoint(IResource resource, int lineNumber) throws CoreException {
+        IBreakpointManager manager= DebugPlugin.getDefault().getBreakpointManager();
+        IBreakpoint[] breakpoints= manager.getBreakpoints(JDT_DEBUG_PLUGIN_ID);
+
+        for (int i = 0; i < breakpoints.length; i++) {
+            IJavaStratumLineBreakpoint breakpoint= asStratumBreakpointOn(breakpoints[i], resource);
+
+            if (breakpoint != null && breakpoint.getLineNumber() == lineNumber) {
+                return breakpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the given breakpoint as a stratum line breakpoint, if it is one and its marker
+     * exists on the given resource; otherwise null. Checks the breakpoint's type rather than
+     * its marker's type, so the marker's attributes needn't be read.
+     */
+    static IJavaStratumLineBreakpoint asStratumBreakpointOn(IBreakpoint breakpoint, IResource resource) {
+        if (!(breakpoint instanceof IJavaStratumLineBreakpoint)) {
+            return null;
+        }
+        IMarker marker= breakpoint.getMarker();
+        if (marker == null || !resource.equals(marker.getResource()) || !marker.exists()) {
+            return null;
+        }
+        return (IJavaStratumLineBreakpoint) breakpoint;
+    }
+
+    /**
+     * Returns the Java stratum line breakpoints that are already registered with the breakpoint
+     * manager for the given resource on any of the given line numbers. Unlike calling
+     * findStratumBreakpoint() once per line, this makes only one pass over the breakpoints.
+     * 
+     * @param resource the resource
+     * @param lineNumbers the line numbers of interest, in any order
+     * @return the matching breakpoints (possibly empty, never <code>null</code>)
+     * @exception CoreException if unable to retrieve the associated marker
+     *  attributes (line number).
+     */
+    public static IJavaLineBreakpoint[] findStratumBreakpoints(IResource resource, int[] lineNumbers) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            return doFindStratumBreakpoints(resource, lineNumbers);
+        } finally {
+            ActivationTrace.end("JavaBreakpointHandler.findStratumBreakpoints(IResource,int[])", start);
+        }
+    }
+
+    private static IJavaLineBreakpoint[] doFindStratumBreakpoints(IResource resource, int[] lineNumbers) throws CoreException {
+        if (lineNumbers.length == 0) {
+            return new IJavaLineBreakpoint[0];
+        }
+        IBreakpointManager manager= DebugPlugin.getDefault().getBreakpointManager();
+        IBreakpoint[] breakpoints= manager.getBreakpoints(JDT_DEBUG_PLUGIN_ID);
+        int[] sortedLines= new int[lineNumbers.length];
+        List<IJavaLineBreakpoint> result= new ArrayList<IJavaLineBreakpoint>();
+
+        System.arraycopy(lineNumbers, 0, sortedLines, 0, lineNumbers.length);
+        Arrays.sort(sortedLines);
+
+        for (int i = 0; i < breakpoints.length; i++) {
+            IJavaStratumLineBreakpoint breakpoint= asStratumBreakpointOn(breakpoints[i], resource);
+
+            if (breakpoint != null && Arrays.binarySearch(sortedLines, breakpoint.getLineNumber()) >= 0) {
+                result.add(breakpoint);
+            }
+        }
+        return result.toArray(new IJavaLineBreakpoint[result.size()]);
+    }
+}
@@ -0,0 +1,247 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.imp.java.hosted.ActivationTrace;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Maps lines of generated Java code back to the stratum source lines they were generated
+ * from, e.g. to translate console stack traces or to filter steps. Uses the SMAPs in the
+ * project's class files; each class's SMAP is parsed once, into an interval index (see
+ * StratumLineTable), and re-parsed only when its class file changes.
+ * @author agent@local
+ */
+public class ReverseLineMapper {
+    private static class ClassEntry {
+        final File fClassFile;
+        final long fStamp;
+        final List<SmapReader.FileInfo> fFiles;
+        final StratumLineTable[] fTables;
+
+        ClassEntry(File classFile, List<SmapReader.FileInfo> files) {
+            fClassFile= classFile;
+            fStamp= classFile.lastModified();
+            fFiles= files;
+            fTables= new StratumLineTable[files.size()];
+            for(int i= 0; i < fTables.length; i++) {
+                fTables[i]= new StratumLineTable(files.get(i).getLineInfo(), fStamp);
+            }
+        }
+
+        StratumSourceLocation map(int javaLine) {
+            for(int i= 0; i < fTables.length; i++) {
+                int srcLine= fTables[i].mapToSourceLine(javaLine);
+                if (srcLine >= 0) {
+                    SmapReader.FileInfo file= fFiles.get(i);
+                    return new StratumSourceLocation(file.getName(), file.getPath(), srcLine);
+                }
+            }
+            return null;
+        }
+    }
+
+    private final IJavaProject fProject;
+
+    private final String fStratum;
+
+    private File[] fOutputDirs;
+
+    private final Map<String, ClassEntry> fClasses= new HashMap<String, ClassEntry>();
+
+    /**
+     * @param stratum the stratum of interest, or null to use each SMAP's default stratum
+     */
+    public ReverseLineMapper(IJavaProject project, String stratum) {
+        fProject= project;
+        fStratum= stratum;
+    }
+
+    /**
+     * @see #mapToSourceLine(IFile, int, String)
+     */
+    public static int mapToSourceLine(IFile origSrcFile, int javaLine) {
+        return mapToSourceLine(origSrcFile, javaLine, null);
+    }
+
+    /**
+     * Maps a line of the Java source generated from the given stratum source file back to
+     * a line of the stratum source file.
+     * @param stratum the stratum of interest, or null to use each SMAP's default stratum
+     * @return the source line, or -1 if the given line isn't mapped
+     */
+    public static int mapToSourceLine(IFile origSrcFile, int javaLine, String stratum) {
+        long start= ActivationTrace.start();
+        try {
+            StratumLineTable lineTable= StratumLineTableCache.getInstance().getLineTable(origSrcFile, stratum);
+
+            return (lineTable != null) ? lineTable.mapToSourceLine(javaLine) : -1;
+        } finally {
+            ActivationTrace.end("ReverseLineMapper.mapToSourceLine(IFile,int,String)", start);
+        }
+    }
+
+    /**
+     * @param className the fully-qualified binary name of the class, e.g. "a.b.Foo$1"
+     * @return the stratum source location corresponding to the given line of the given
+     * class, or null if there is none
+     */
+    public synchronized StratumSourceLocation map(String className, int javaLine) {
+        long start= ActivationTrace.start();
+        try {
+            ClassEntry entry= getEntry(className);
+
+            return (entry != null) ? entry.map(javaLine) : null;
+        } finally {
+            ActivationTrace.end("ReverseLineMapper.map(String,int)", start);
+        }
+    }
+
+    /**
+     * Bulk form of map(String,int). Each distinct class's SMAP is looked up (and checked
+     * for staleness) only once per call.
+     * @return an array parallel to the arguments, containing null for each unmapped location
+     */
+    public synchronized StratumSourceLocation[] map(String[] classNames, int[] javaLines) {
+        long start= ActivationTrace.start();
+        try {
+            StratumSourceLocation[] result= new StratumSourceLocation[classNames.length];
+            Map<String, ClassEntry> checked= new HashMap<String, ClassEntry>();
+
+            for(int i= 0; i < classNames.length; i++) {
+                ClassEntry entry;
+
+                if (checked.containsKey(classNames[i])) {
+                    entry= checked.get(classNames[i]);
+                } else {
+                    entry= getEntry(classNames[i]);
+                    checked.put(classNames[i], entry);
+                }
+                result[i]= (entry != null) ? entry.map(javaLines[i]) : null;
+            }
+            return result;
+        } finally {
+            ActivationTrace.end("ReverseLineMapper.map(String[],int[])", start);
+        }
+    }
+
+    /**
+     * Translates the frames of a Java stack trace into stratum source locations.
+     * @return an array parallel to frames, containing null for each frame that can't be mapped
+     */
+    public StratumSourceLocation[] map(StackTraceElement[] frames) {
+        long start= ActivationTrace.start();
+        try {
+            String[] classNames= new String[frames.length];
+            int[] javaLines= new int[frames.length];
+
+            for(int i= 0; i < frames.length; i++) {
+                classNames[i]= frames[i].getClassName();
+                javaLines[i]= frames[i].getLineNumber();
+            }
+            return map(classNames, javaLines);
+        } finally {
+            ActivationTrace.end("ReverseLineMapper.map(StackTraceElement[])", start);
+        }
+    }
+
+    /**
+     * Discards all cached SMAP data, e.g. after the project's output locations change.
+     */
+    public synchronized void reset() {
+        fClasses.clear();
+        fOutputDirs= null;
+    }
+
+    /**
+     * @return the SMAP data for the given class, or null if the class doesn't exist or
+     * carries no SMAP
+     */
+    private ClassEntry getEntry(String className) {
+        ClassEntry entry= fClasses.get(className);
+
+        if (entry != null && entry.fClassFile.lastModified() == entry.fStamp) {
+            return entry;
+        }
+        entry= loadEntry(className);
+        if (entry != null) {
+            fClasses.put(className, entry);
+        } else {
+            fClasses.remove(className);
+        }
+        return entry;
+    }
+
+    private ClassEntry loadEntry(String className) {
+        String classFilePath= className.replace('.', File.separatorChar) + ".class";
+        File[] outputDirs= getOutputDirs();
+
+        for(int i= 0; i < outputDirs.length; i++) {
+            File classFile= new File(outputDirs[i], classFilePath);
+
+            if (classFile.isFile()) {
+                try {
+                    String smap= SmapReader.readSourceDebugExtension(classFile);
+
+                    if (smap != null) {
+                        return new ClassEntry(classFile, SmapReader.parseStratum(smap, fStratum));
+                    }
+                } catch (IOException e) {
+                    Activator.logException("Unable to read SMAP from " + classFile, e);
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private File[] getOutputDirs() {
+        if (fOutputDirs == null) {
+            List<File> dirs= new ArrayList<File>();
+            IWorkspaceRoot root= fProject.getProject().getWorkspace().getRoot();
+
+            try {
+                addOutputDir(root, fProject.getOutputLocation(), dirs);
+                for(IClasspathEntry cpEntry: fProject.getRawClasspath()) {
+                    if (cpEntry.getEntryKind() == IClasspathEntry.CPE_SOURCE && cpEntry.getOutputLocation() != null) {
+                        addOutputDir(root, cpEntry.getOutputLocation(), dirs);
+                    }
+                }
+            } catch (JavaModelException e) {
+                Activator.logException("Unable to determine output locations of project " + fProject.getElementName(), e);
+            }
+            fOutputDirs= dirs.toArray(new File[dirs.size()]);
+        }
+        return fOutputDirs;
+    }
+
+    private void addOutputDir(IWorkspaceRoot root, IPath outputPath, List<File> dirs) {
+        IPath location= (outputPath.segmentCount() == 1) ? root.getProject(outputPath.segment(0)).getLocation() : root.getFolder(outputPath).getLocation();
+
+        if (location != null && !dirs.contains(location.toFile())) {
+            dirs.add(location.toFile());
+        }
+    }
+}
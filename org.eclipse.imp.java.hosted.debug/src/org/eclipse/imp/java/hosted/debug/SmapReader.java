@@ -0,0 +1,293 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads JSR-045 source maps (SMAPs) directly from the SourceDebugExtension attribute
+ * of class files, and extracts the line mapping for a given stratum and source file.
+ * @author agent@local
+ */
+public class SmapReader {
+    private static final String SOURCE_DEBUG_EXTENSION= "SourceDebugExtension";
+
+    private SmapReader() { }
+
+    /**
+     * @return the text of the SourceDebugExtension attribute of the given class file,
+     * or null if the class file has no such attribute
+     */
+    public static String readSourceDebugExtension(File classFile) throws IOException {
+        DataInputStream is= new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)));
+        try {
+            if (is.readInt() != 0xCAFEBABE) {
+                return null;
+            }
+            is.readUnsignedShort(); // minor version
+            is.readUnsignedShort(); // major version
+
+            int cpCount= is.readUnsignedShort();
+            String[] utf8Constants= new String[cpCount];
+
+            for(int i= 1; i < cpCount; i++) {
+                int tag= is.readUnsignedByte();
+                switch (tag) {
+                case 1: // Utf8
+                    utf8Constants[i]= is.readUTF();
+                    break;
+                case 7: case 8: case 16: case 19: case 20: // Class, String, MethodType, Module, Package
+                    skip(is, 2);
+                    break;
+                case 15: // MethodHandle
+                    skip(is, 3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    skip(is, 4);
+                    break;
+                case 5: case 6: // Long, Double occupy two constant pool slots
+                    skip(is, 8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag + " in " + classFile);
+                }
+            }
+            skip(is, 6); // access flags, this class, super class
+            skip(is, 2 * is.readUnsignedShort()); // interfaces
+            skipMembers(is); // fields
+            skipMembers(is); // methods
+
+            int attrCount= is.readUnsignedShort();
+            for(int i= 0; i < attrCount; i++) {
+                String attrName= utf8Constants[is.readUnsignedShort()];
+                int attrLen= is.readInt();
+
+                if (SOURCE_DEBUG_EXTENSION.equals(attrName)) {
+                    byte[] bytes= new byte[attrLen];
+                    is.readFully(bytes);
+                    return decode(bytes);
+                }
+                skip(is, attrLen);
+            }
+            return null;
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * The portion of a stratum's line mapping that pertains to one source file.
+     */
+    public static class FileInfo {
+        private final String fName;
+
+        private final String fPath;
+
+        private final List<int[]> fLineInfo= new ArrayList<int[]>();
+
+        FileInfo(String name, String path) {
+            fName= name;
+            fPath= path;
+        }
+
+        /**
+         * @return the source file name, as given in the SMAP's file section
+         */
+        public String getName() {
+            return fName;
+        }
+
+        /**
+         * @return the source file path, as given in the SMAP's file section, or null if none
+         */
+        public String getPath() {
+            return fPath;
+        }
+
+        /**
+         * @return line-info records of the form { inputStartLine, repeatCount, outputStartLine, outputLineIncrement }
+         */
+        public List<int[]> getLineInfo() {
+            return fLineInfo;
+        }
+    }
+
+    /**
+     * Parses the given SMAP, and returns the line mapping for the given source file in the
+     * given stratum, expressed as a list of int[4] line-info records of the form
+     * { inputStartLine, repeatCount, outputStartLine, outputLineIncrement }.
+     * @param stratum the stratum of interest, or null to use the SMAP's default stratum
+     * @param srcFileName the name of the source file of interest; if the stratum has only
+     * one file section entry, it is used regardless of its name
+     */
+    public static List<int[]> parseLineInfo(String smap, String stratum, String srcFileName) throws IOException {
+        List<FileInfo> files= parseStratum(smap, stratum);
+
+        if (files.size() == 1) {
+            return files.get(0).getLineInfo();
+        }
+        for(FileInfo file: files) {
+            if (file.getName().equals(srcFileName)) {
+                return file.getLineInfo();
+            }
+        }
+        return new ArrayList<int[]>();
+    }
+
+    /**
+     * Parses the given SMAP, and returns the line mapping for each of the source files in
+     * the given stratum, in the order in which they appear in the file section.
+     * @param stratum the stratum of interest, or null to use the SMAP's default stratum
+     */
+    public static List<FileInfo> parseStratum(String smap, String stratum) throws IOException {
+        BufferedReader rdr= new BufferedReader(new StringReader(smap));
+        List<FileInfo> result= new ArrayList<FileInfo>();
+
+        if (!"SMAP".equals(rdr.readLine())) {
+            return result;
+        }
+        rdr.readLine(); // output file name
+        String defaultStratum= rdr.readLine();
+        if (stratum == null) {
+            stratum= defaultStratum;
+        }
+
+        boolean inStratum= false;
+        String section= null;
+        Map<Integer,FileInfo> files= new HashMap<Integer,FileInfo>();
+        List<int[]> lineInfo= new ArrayList<int[]>(); // { fileID, inputStart, repeat, outputStart, increment }
+        String line;
+
+        while ((line= rdr.readLine()) != null) {
+            if (line.startsWith("*")) {
+                if (line.startsWith("*S ")) {
+                    inStratum= line.substring(3).trim().equals(stratum);
+                } else if (line.startsWith("*E")) {
+                    break;
+                }
+                section= line;
+                continue;
+            }
+            if (!inStratum || section == null) {
+                continue;
+            }
+            if (section.startsWith("*F")) {
+                boolean hasPath= line.startsWith("+ ");
+                String entry= hasPath ? line.substring(2).trim() : line.trim();
+                int space= entry.indexOf(' ');
+                String path= hasPath ? rdr.readLine() : null;
+
+                if (space > 0) {
+                    try {
+                        FileInfo file= new FileInfo(entry.substring(space + 1).trim(), path != null ? path.trim() : null);
+
+                        files.put(Integer.valueOf(entry.substring(0, space)), file);
+                        result.add(file);
+                    } catch (NumberFormatException e) {
+                        // malformed file entry; ignore it
+                    }
+                }
+            } else if (section.startsWith("*L")) {
+                parseLineInfoLine(line.trim(), lineInfo);
+            }
+        }
+
+        for(int[] info: lineInfo) {
+            FileInfo file= files.get(Integer.valueOf(info[0]));
+
+            if (file != null) {
+                file.fLineInfo.add(new int[] { info[1], info[2], info[3], info[4] });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses a line-info line of the form
+     * <code>InputStartLine[#LineFileID][,RepeatCount]:OutputStartLine[,OutputLineIncrement]</code>.
+     * The LineFileID, if omitted, is that of the preceding line-info line.
+     */
+    private static void parseLineInfoLine(String line, List<int[]> lineInfo) {
+        int colon= line.indexOf(':');
+        if (colon < 0) {
+            return;
+        }
+        try {
+            String input= line.substring(0, colon);
+            String output= line.substring(colon + 1);
+            int fileID= lineInfo.isEmpty() ? 0 : lineInfo.get(lineInfo.size() - 1)[0];
+            int repeat= 1;
+            int increment= 1;
+
+            int comma= input.indexOf(',');
+            if (comma >= 0) {
+                repeat= Integer.parseInt(input.substring(comma + 1));
+                input= input.substring(0, comma);
+            }
+            int hash= input.indexOf('#');
+            if (hash >= 0) {
+                fileID= Integer.parseInt(input.substring(hash + 1));
+                input= input.substring(0, hash);
+            }
+            comma= output.indexOf(',');
+            if (comma >= 0) {
+                increment= Integer.parseInt(output.substring(comma + 1));
+                output= output.substring(0, comma);
+            }
+            lineInfo.add(new int[] { fileID, Integer.parseInt(input), repeat, Integer.parseInt(output), increment });
+        } catch (NumberFormatException e) {
+            // malformed line-info line; ignore it
+        }
+    }
+
+    private static void skipMembers(DataInputStream is) throws IOException {
+        int count= is.readUnsignedShort();
+        for(int i= 0; i < count; i++) {
+            skip(is, 6); // access flags, name, descriptor
+            int attrCount= is.readUnsignedShort();
+            for(int j= 0; j < attrCount; j++) {
+                skip(is, 2);
+                skip(is, is.readInt());
+            }
+        }
+    }
+
+    private static void skip(DataInputStream is, int n) throws IOException {
+        while (n > 0) {
+            int skipped= is.skipBytes(n);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of class file");
+            }
+            n -= skipped;
+        }
+    }
+
+    private static String decode(byte[] bytes) {
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return new String(bytes);
+        }
+    }
+}
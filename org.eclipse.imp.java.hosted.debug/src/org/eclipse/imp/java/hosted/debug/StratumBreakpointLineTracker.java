@@ -0,0 +1,503 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.IFileBuffer;
+import org.eclipse.core.filebuffers.IFileBufferListener;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointListener;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.jdt.debug.core.IJavaStratumLineBreakpoint;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
+import org.eclipse.jface.text.DefaultPositionUpdater;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IPositionUpdater;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ISynchronizable;
+import org.eclipse.jface.text.Position;
+
+/**
+ * Keeps the line numbers of the stratum breakpoint markers on stratum source files in step
+ * with edits to the files' documents, and remembers which breakpoints the edits affected.
+ * As in AbstractMarkerAnnotationModel, each breakpoint is tracked as a Position in the
+ * document while it is edited, and the markers' line numbers are only updated when the
+ * document is saved; if the edits are reverted instead, the positions are re-created from
+ * the markers. After a build, BreakpointUtils.resetJavaBreakpoints() then only needs to
+ * re-validate the affected breakpoints, rather than re-creating all of the file's
+ * breakpoints.
+ * <p>
+ * Once installed, the tracker follows the text file buffers of files with stratum
+ * breakpoints, i.e. it connects a file's document when an editor opens the file (or when
+ * a breakpoint is added to a file that is already open), and disconnects it when the
+ * editor closes. Editors that don't use file buffers can connect and disconnect their
+ * documents explicitly. Only the markers of stratum breakpoints are tracked, so the
+ * tracker doesn't interfere with the Java editor's own tracking of Java line breakpoints.
+ * <p>
+ * The tracker isn't installed implicitly: a Java-hosted language's plugin calls install()
+ * once, e.g. when it starts, if its editors should keep their breakpoints in step.
+ * @author agent@local
+ */
+public class StratumBreakpointLineTracker {
+    private static final String POSITION_CATEGORY= "org.eclipse.imp.java.hosted.stratumBreakpoints"; //$NON-NLS-1$
+
+    /**
+     * The type of the markers of JDT's stratum line breakpoints
+     */
+    public static final String STRATUM_BREAKPOINT_MARKER= "org.eclipse.jdt.debug.javaStratumLineBreakpointMarker"; //$NON-NLS-1$
+
+    private static final StratumBreakpointLineTracker sInstance= new StratumBreakpointLineTracker();
+
+    private class FileTracker implements IDocumentListener {
+        private final IFile fFile;
+
+        private final IDocument fDocument;
+
+        private final IPositionUpdater fUpdater= new DefaultPositionUpdater(POSITION_CATEGORY);
+
+        /**
+         * The positions of the file's line breakpoint markers in the document
+         */
+        private final Map<IMarker, Position> fPositions= new HashMap<IMarker, Position>();
+
+        /**
+         * The markers whose lines were touched by edits since the last save
+         */
+        private final Set<IMarker> fDirtyMarkers= new HashSet<IMarker>();
+
+        /**
+         * Lines (1-based) of the breakpoints affected by the edits saved since the last
+         * call to takeDirtyLines()
+         */
+        private final BitSet fDirtyLines= new BitSet();
+
+        FileTracker(IFile file, IDocument document) {
+            fFile= file;
+            fDocument= document;
+        }
+
+        void install() {
+            fDocument.addPositionCategory(POSITION_CATEGORY);
+            fDocument.addPositionUpdater(fUpdater);
+            fDocument.addDocumentListener(this);
+            resetPositions();
+        }
+
+        void uninstall() {
+            fDocument.removeDocumentListener(this);
+            fDocument.removePositionUpdater(fUpdater);
+            try {
+                fDocument.removePositionCategory(POSITION_CATEGORY);
+            } catch (BadPositionCategoryException e) {
+                // already gone
+            }
+        }
+
+        private Object getLockObject() {
+            if (fDocument instanceof ISynchronizable) {
+                Object lock= ((ISynchronizable) fDocument).getLockObject();
+                if (lock != null) {
+                    return lock;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * (Re-)creates the positions of the file's breakpoints from the markers' line
+         * numbers, discarding the effects of any unsaved edits.
+         */
+        void resetPositions() {
+            IMarker[] markers;
+
+            try {
+                markers= fFile.findMarkers(STRATUM_BREAKPOINT_MARKER, true, IResource.DEPTH_ZERO);
+            } catch (CoreException e) {
+                Activator.logException("Unable to read the breakpoints on file " + fFile.getName(), e);
+                markers= new IMarker[0];
+            }
+            synchronized (getLockObject()) {
+                for(Position position: fPositions.values()) {
+                    removePosition(position);
+                }
+                fPositions.clear();
+                fDirtyMarkers.clear();
+                for(int i= 0; i < markers.length; i++) {
+                    addMarker(markers[i]);
+                }
+            }
+        }
+
+        void addMarker(IMarker marker) {
+            int line= marker.getAttribute(IMarker.LINE_NUMBER, -1);
+
+            synchronized (getLockObject()) {
+                if (line < 1 || line > fDocument.getNumberOfLines() || fPositions.containsKey(marker)) {
+                    return;
+                }
+                try {
+                    IRegion region= fDocument.getLineInformation(line - 1);
+                    Position position= new Position(region.getOffset(), region.getLength());
+
+                    fDocument.addPosition(POSITION_CATEGORY, position);
+                    fPositions.put(marker, position);
+                } catch (BadLocationException e) {
+                    // the marker is out of date; leave it alone
+                } catch (BadPositionCategoryException e) {
+                    // not installed (any more)
+                }
+            }
+        }
+
+        void removeMarker(IMarker marker) {
+            synchronized (getLockObject()) {
+                Position position= fPositions.remove(marker);
+
+                if (position != null) {
+                    removePosition(position);
+                }
+                fDirtyMarkers.remove(marker);
+            }
+        }
+
+        private void removePosition(Position position) {
+            try {
+                fDocument.removePosition(POSITION_CATEGORY, position);
+            } catch (BadPositionCategoryException e) {
+                // not installed (any more)
+            }
+        }
+
+        public void documentAboutToBeChanged(DocumentEvent event) { }
+
+        public void documentChanged(DocumentEvent event) {
+            // The positions have already been updated; find those the edit touched
+            int start= event.getOffset();
+            int end= start + ((event.getText() != null) ? event.getText().length() : 0);
+
+            synchronized (getLockObject()) {
+                for(Map.Entry<IMarker, Position> entry: fPositions.entrySet()) {
+                    Position position= entry.getValue();
+
+                    if (position.isDeleted() || (position.getOffset() <= end && start <= position.getOffset() + position.getLength())) {
+                        fDirtyMarkers.add(entry.getKey());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes the current lines of the breakpoints' positions to their markers, in a
+         * single workspace operation. Called when the document has been saved.
+         */
+        void commit() {
+            final Map<IMarker, Integer> newLines= new HashMap<IMarker, Integer>();
+
+            synchronized (getLockObject()) {
+                for(Map.Entry<IMarker, Position> entry: fPositions.entrySet()) {
+                    IMarker marker= entry.getKey();
+                    Position position= entry.getValue();
+                    boolean dirty= position.isDeleted() || fDirtyMarkers.contains(marker);
+                    int line;
+
+                    try {
+                        line= fDocument.getLineOfOffset(position.getOffset()) + 1;
+                    } catch (BadLocationException e) {
+                        continue;
+                    }
+                    if (position.isDeleted()) {
+                        // The breakpoint's line was deleted; keep it at the end of the edit
+                        position.undelete();
+                    }
+                    if (marker.getAttribute(IMarker.LINE_NUMBER, -1) != line) {
+                        newLines.put(marker, Integer.valueOf(line));
+                        dirty= true;
+                    }
+                    if (dirty) {
+                        synchronized (this) {
+                            fDirtyLines.set(line);
+                        }
+                    }
+                }
+                fDirtyMarkers.clear();
+            }
+            if (newLines.isEmpty()) {
+                return;
+            }
+            IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+            try {
+                workspace.run(new IWorkspaceRunnable() {
+                    public void run(IProgressMonitor monitor) throws CoreException {
+                        for(Map.Entry<IMarker, Integer> entry: newLines.entrySet()) {
+                            if (entry.getKey().exists()) {
+                                entry.getKey().setAttribute(IMarker.LINE_NUMBER, entry.getValue());
+                            }
+                        }
+                    }
+                }, workspace.getRuleFactory().markerRule(fFile), IWorkspace.AVOID_UPDATE, null);
+            } catch (CoreException e) {
+                Activator.logException("Unable to update breakpoint line numbers on file " + fFile.getName(), e);
+            }
+        }
+
+        synchronized BitSet takeDirtyLines() {
+            BitSet result= (BitSet) fDirtyLines.clone();
+            fDirtyLines.clear();
+            return result;
+        }
+    }
+
+    /**
+     * Follows the text file buffers (i.e. the editors) of files with line breakpoints, and
+     * the breakpoints added to and removed from them.
+     */
+    private class Listener implements IFileBufferListener, IBreakpointListener {
+        public void bufferCreated(IFileBuffer buffer) {
+            IFile file= getFile(buffer);
+
+            if (file != null && buffer instanceof ITextFileBuffer && hasStratumBreakpoints(file)) {
+                connect(file, ((ITextFileBuffer) buffer).getDocument());
+            }
+        }
+
+        public void bufferDisposed(IFileBuffer buffer) {
+            IFile file= getFile(buffer);
+
+            if (file != null) {
+                disconnect(file);
+            }
+        }
+
+        public void bufferContentAboutToBeReplaced(IFileBuffer buffer) { }
+
+        public void bufferContentReplaced(IFileBuffer buffer) {
+            // Reverted, or re-loaded from the file: the markers are up to date again
+            FileTracker tracker= getTracker(getFile(buffer));
+
+            if (tracker != null) {
+                tracker.resetPositions();
+            }
+        }
+
+        public void stateChanging(IFileBuffer buffer) { }
+
+        public void dirtyStateChanged(IFileBuffer buffer, boolean isDirty) {
+            FileTracker tracker= isDirty ? null : getTracker(getFile(buffer));
+
+            if (tracker != null) {
+                tracker.commit();
+            }
+        }
+
+        public void stateValidationChanged(IFileBuffer buffer, boolean isStateValidated) { }
+
+        public void underlyingFileMoved(IFileBuffer buffer, IPath path) {
+            bufferDisposed(buffer);
+        }
+
+        public void underlyingFileDeleted(IFileBuffer buffer) {
+            bufferDisposed(buffer);
+        }
+
+        public void stateChangeFailed(IFileBuffer buffer) { }
+
+        public void breakpointAdded(IBreakpoint breakpoint) {
+            IMarker marker= breakpoint.getMarker();
+
+            if (!(breakpoint instanceof IJavaStratumLineBreakpoint) || marker == null || !(marker.getResource() instanceof IFile)) {
+                return;
+            }
+            IFile file= (IFile) marker.getResource();
+            FileTracker tracker= getTracker(file);
+
+            if (tracker != null) {
+                tracker.addMarker(marker);
+            } else {
+                ITextFileBuffer buffer= FileBuffers.getTextFileBufferManager().getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+
+                if (buffer != null) {
+                    connect(file, buffer.getDocument());
+                }
+            }
+        }
+
+        public void breakpointRemoved(IBreakpoint breakpoint, IMarkerDelta delta) {
+            IMarker marker= breakpoint.getMarker();
+            FileTracker tracker= (breakpoint instanceof IJavaStratumLineBreakpoint && marker != null && marker.getResource() instanceof IFile) ? getTracker((IFile) marker.getResource()) : null;
+
+            if (tracker != null) {
+                tracker.removeMarker(marker);
+            }
+        }
+
+        public void breakpointChanged(IBreakpoint breakpoint, IMarkerDelta delta) { }
+    }
+
+    private final Map<IFile, FileTracker> fTrackers= new HashMap<IFile, FileTracker>();
+
+    private final Listener fListener= new Listener();
+
+    private boolean fInstalled= false;
+
+    private StratumBreakpointLineTracker() { }
+
+    public static StratumBreakpointLineTracker getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Starts following the editors of files with stratum breakpoints, including those
+     * that are already open. Does nothing if the tracker is already installed.
+     */
+    public void install() {
+        IFileBuffer[] buffers;
+
+        synchronized (this) {
+            if (fInstalled) {
+                return;
+            }
+            fInstalled= true;
+        }
+        Activator.addStopHook(new Runnable() {
+            public void run() {
+                uninstall();
+            }
+        });
+        ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+
+        manager.addFileBufferListener(fListener);
+        DebugPlugin.getDefault().getBreakpointManager().addBreakpointListener(fListener);
+        buffers= manager.getFileBuffers();
+        for(int i= 0; i < buffers.length; i++) {
+            fListener.bufferCreated(buffers[i]);
+        }
+    }
+
+    /**
+     * Stops following editors, and disconnects all documents. Registered with the
+     * Activator by install(), to be called when the plugin stops.
+     */
+    public void uninstall() {
+        List<IFile> files;
+
+        synchronized (this) {
+            if (!fInstalled) {
+                return;
+            }
+            fInstalled= false;
+            files= new ArrayList<IFile>(fTrackers.keySet());
+        }
+        FileBuffers.getTextFileBufferManager().removeFileBufferListener(fListener);
+        DebugPlugin.getDefault().getBreakpointManager().removeBreakpointListener(fListener);
+        for(IFile file: files) {
+            disconnect(file);
+        }
+    }
+
+    /**
+     * Starts tracking edits to the given document, which holds the contents of the given
+     * stratum source file.
+     */
+    public synchronized void connect(IFile file, IDocument document) {
+        disconnect(file);
+
+        FileTracker tracker= new FileTracker(file, document);
+        tracker.install();
+        fTrackers.put(file, tracker);
+    }
+
+    /**
+     * Stops tracking edits to the given file's document.
+     */
+    public synchronized void disconnect(IFile file) {
+        FileTracker tracker= fTrackers.remove(file);
+
+        if (tracker != null) {
+            tracker.uninstall();
+        }
+    }
+
+    /**
+     * @return true if edits to the given file's document are being tracked
+     */
+    public synchronized boolean isTracking(IFile file) {
+        return fTrackers.containsKey(file);
+    }
+
+    /**
+     * Writes the lines of the breakpoints in the given file's document to their markers,
+     * for editors that don't use file buffers. Editors that do needn't call this, since
+     * the tracker commits when the file buffer is saved.
+     */
+    public void commit(IFile file) {
+        FileTracker tracker= getTracker(file);
+
+        if (tracker != null) {
+            tracker.commit();
+        }
+    }
+
+    /**
+     * Returns the lines of the given file's breakpoints affected by the edits saved since
+     * the last call, and forgets them.
+     * @return the (1-based) dirty lines, or null if the file's document isn't being tracked
+     */
+    public BitSet takeDirtyLines(IFile file) {
+        FileTracker tracker= getTracker(file);
+
+        return (tracker != null) ? tracker.takeDirtyLines() : null;
+    }
+
+    private synchronized FileTracker getTracker(IFile file) {
+        return (file != null) ? fTrackers.get(file) : null;
+    }
+
+    private static IFile getFile(IFileBuffer buffer) {
+        IPath location= buffer.getLocation();
+
+        return (location != null) ? FileBuffers.getWorkspaceFileAtLocation(location) : null;
+    }
+
+    private static boolean hasStratumBreakpoints(IFile file) {
+        try {
+            return file.findMarkers(STRATUM_BREAKPOINT_MARKER, true, IResource.DEPTH_ZERO).length > 0;
+        } catch (CoreException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * Immutable description of the breakpoint-related properties of a stratum source file:
+ * its source name, type name and stratum path, as recorded in the attributes of the
+ * stratum breakpoints set on it. Since resource handles are path-based, a descriptor
+ * never goes stale; descriptors are cached (up to a fixed number of files) so that
+ * repeatedly setting or finding breakpoints on a file doesn't recompute them.
+ * @author agent@local
+ */
+public class StratumFileDescriptor {
+    public static final String STRATUM_BREAKPOINT_MARKER_TYPE= "org.eclipse.jdt.debug.javaStratumLineBreakpointMarker";
+
+    public static final String SOURCE_NAME_ATTRIBUTE= "org.eclipse.jdt.debug.core.sourceName";
+
+    public static final String TYPE_NAME_ATTRIBUTE= "org.eclipse.jdt.debug.core.typeName";
+
+    private static final int MAX_CACHED= 1024;
+
+    private static final Map<IFile, StratumFileDescriptor> sCache= new LinkedHashMap<IFile, StratumFileDescriptor>(16, 0.75f, true) {
+        private static final long serialVersionUID= 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<IFile, StratumFileDescriptor> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private final IFile fFile;
+
+    private final String fSourceName;
+
+    private final String fTypeName;
+
+    private final String fStratumPath;
+
+    private StratumFileDescriptor(IFile file) {
+        String srcFileName= file.getName();
+        int dot= srcFileName.lastIndexOf('.');
+
+        fFile= file;
+        fSourceName= srcFileName;
+        fTypeName= (dot >= 0) ? srcFileName.substring(0, dot) : srcFileName;
+        fStratumPath= file.getFullPath().removeFirstSegments(1).toString();
+    }
+
+    /**
+     * @return the (possibly cached) descriptor for the given stratum source file
+     */
+    public static StratumFileDescriptor forFile(IFile file) {
+        synchronized (sCache) {
+            StratumFileDescriptor desc= sCache.get(file);
+
+            if (desc == null) {
+                desc= new StratumFileDescriptor(file);
+                sCache.put(file, desc);
+            }
+            return desc;
+        }
+    }
+
+    public IFile getFile() {
+        return fFile;
+    }
+
+    /**
+     * @return the source file name, e.g. "Foo.x10"
+     */
+    public String getSourceName() {
+        return fSourceName;
+    }
+
+    /**
+     * @return the simple type name, i.e. the source file name without its extension
+     */
+    public String getTypeName() {
+        return fTypeName;
+    }
+
+    /**
+     * @return the project-relative path of the source file
+     */
+    public String getStratumPath() {
+        return fStratumPath;
+    }
+
+    /**
+     * @return the marker type of the stratum breakpoints set on the file
+     */
+    public String getMarkerType() {
+        return STRATUM_BREAKPOINT_MARKER_TYPE;
+    }
+
+    /**
+     * Puts the source and type name attributes for a new stratum breakpoint on the file
+     * into the given map, which is first cleared.
+     */
+    public void fillAttributes(Map<String, Object> attributes) {
+        attributes.clear();
+        attributes.put(SOURCE_NAME_ATTRIBUTE, fSourceName);
+        attributes.put(TYPE_NAME_ATTRIBUTE, fTypeName);
+    }
+}
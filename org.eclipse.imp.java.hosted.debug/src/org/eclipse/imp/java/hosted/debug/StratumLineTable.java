@@ -0,0 +1,354 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An immutable table of the JSR-045 line-info records that map the lines of one
+ * stratum source file to the lines of the generated Java code. The table can be
+ * persisted in a compact binary form and re-loaded via memory-mapped reads, so
+ * that it needn't be recomputed from the class files or generated source after
+ * an IDE restart.
+ * <p>
+ * Binary format (big-endian): int magic, int record count, long stamp, followed by
+ * the records, each as four ints: inputStartLine, repeatCount, outputStartLine,
+ * outputLineIncrement.
+ * @author agent@local
+ */
+public class StratumLineTable {
+    private static final int MAGIC= 0x534C5431; // "SLT1"
+
+    private static final int HEADER_SIZE= 16;
+
+    private static final int RECORD_SIZE= 16;
+
+    private final long fStamp;
+
+    private final int[] fInputStart;
+
+    private final int[] fRepeat;
+
+    private final int[] fOutputStart;
+
+    private final int[] fOutputIncrement;
+
+    /**
+     * Sorted, duplicate-free array of the source lines that map to some generated line
+     */
+    private final int[] fValidLines;
+
+    /**
+     * The same set of lines as fValidLines, as a bitmap indexed by line number
+     */
+    private final BitSet fValidLineSet;
+
+    /**
+     * Interval index over the generated lines: fOutputLo[i]..fOutputHi[i] map back to source
+     * line fOutputSource[i]. Sorted by fOutputLo; fMaxOutputHi[i] is the maximum of
+     * fOutputHi[0..i], so that a query can stop scanning once no earlier interval can
+     * contain the line in question.
+     */
+    private int[] fOutputLo, fOutputHi, fOutputSource, fMaxOutputHi;
+
+    /**
+     * @param lineInfo records of the form { inputStartLine, repeatCount, outputStartLine, outputLineIncrement }
+     * @param stamp the modification stamp of the data from which the table was computed
+     */
+    public StratumLineTable(List<int[]> lineInfo, long stamp) {
+        int n= lineInfo.size();
+
+        fStamp= stamp;
+        fInputStart= new int[n];
+        fRepeat= new int[n];
+        fOutputStart= new int[n];
+        fOutputIncrement= new int[n];
+        for(int i= 0; i < n; i++) {
+            int[] info= lineInfo.get(i);
+            fInputStart[i]= info[0];
+            fRepeat[i]= info[1];
+            fOutputStart[i]= info[2];
+            fOutputIncrement[i]= info[3];
+        }
+        fValidLines= computeValidLines();
+        fValidLineSet= computeValidLineSet();
+        computeOutputIndex();
+    }
+
+    private StratumLineTable(long stamp, int[] inputStart, int[] repeat, int[] outputStart, int[] outputIncrement) {
+        fStamp= stamp;
+        fInputStart= inputStart;
+        fRepeat= repeat;
+        fOutputStart= outputStart;
+        fOutputIncrement= outputIncrement;
+        fValidLines= computeValidLines();
+        fValidLineSet= computeValidLineSet();
+        computeOutputIndex();
+    }
+
+    private int[] computeValidLines() {
+        int total= 0;
+        for(int i= 0; i < fRepeat.length; i++) {
+            total += fRepeat[i];
+        }
+        int[] lines= new int[total];
+        int k= 0;
+        for(int i= 0; i < fInputStart.length; i++) {
+            for(int j= 0; j < fRepeat[i]; j++) {
+                lines[k++]= fInputStart[i] + j;
+            }
+        }
+        Arrays.sort(lines);
+
+        int unique= 0;
+        for(int i= 0; i < lines.length; i++) {
+            if (unique == 0 || lines[unique - 1] != lines[i]) {
+                lines[unique++]= lines[i];
+            }
+        }
+        int[] result= new int[unique];
+        System.arraycopy(lines, 0, result, 0, unique);
+        return result;
+    }
+
+    private BitSet computeValidLineSet() {
+        BitSet result= new BitSet(fValidLines.length > 0 ? fValidLines[fValidLines.length - 1] + 1 : 0);
+
+        for(int i= 0; i < fValidLines.length; i++) {
+            if (fValidLines[i] >= 0) {
+                result.set(fValidLines[i]);
+            }
+        }
+        return result;
+    }
+
+    private void computeOutputIndex() {
+        int total= 0;
+        for(int i= 0; i < fRepeat.length; i++) {
+            if (fOutputStart[i] > 0) {
+                total += fRepeat[i];
+            }
+        }
+        long[] intervals= new long[total]; // (lo << 32 | index into lo/hi/src), for sorting by lo
+        int[] lo= new int[total];
+        int[] hi= new int[total];
+        int[] src= new int[total];
+        int k= 0;
+
+        for(int i= 0; i < fInputStart.length; i++) {
+            if (fOutputStart[i] <= 0) {
+                continue; // generated line unknown
+            }
+            int incr= fOutputIncrement[i];
+            for(int j= 0; j < fRepeat[i]; j++) {
+                lo[k]= fOutputStart[i] + j * incr;
+                hi[k]= (incr > 0) ? lo[k] + incr - 1 : lo[k];
+                src[k]= fInputStart[i] + j;
+                intervals[k]= ((long) lo[k] << 32) | k;
+                k++;
+            }
+        }
+        Arrays.sort(intervals);
+
+        fOutputLo= new int[total];
+        fOutputHi= new int[total];
+        fOutputSource= new int[total];
+        fMaxOutputHi= new int[total];
+        for(int i= 0; i < total; i++) {
+            int idx= (int) intervals[i];
+            fOutputLo[i]= lo[idx];
+            fOutputHi[i]= hi[idx];
+            fOutputSource[i]= src[idx];
+            fMaxOutputHi[i]= (i > 0) ? Math.max(fMaxOutputHi[i - 1], hi[idx]) : hi[idx];
+        }
+    }
+
+    /**
+     * @return the modification stamp of the data from which this table was computed
+     */
+    public long getStamp() {
+        return fStamp;
+    }
+
+    /**
+     * @return true if the given source line maps to at least one generated line
+     */
+    public boolean isValidLine(int line) {
+        return Arrays.binarySearch(fValidLines, line) >= 0;
+    }
+
+    /**
+     * @return a bitmap of the source lines that map to some generated line, indexed by
+     * line number. The result is a copy, and may be modified by the caller.
+     */
+    public BitSet getValidLines() {
+        return (BitSet) fValidLineSet.clone();
+    }
+
+    /**
+     * @return the valid source line closest to the given line (preferring the following
+     * line when two are equally close), or -1 if there are no valid lines
+     */
+    public int getNearestValidLine(int line) {
+        if (fValidLines.length == 0) {
+            return -1;
+        }
+        int idx= Arrays.binarySearch(fValidLines, line);
+
+        if (idx >= 0) {
+            return line;
+        }
+        int next= -(idx + 1); // index of the first valid line after the given line
+        if (next == 0) {
+            return fValidLines[0];
+        }
+        if (next == fValidLines.length) {
+            return fValidLines[next - 1];
+        }
+        int before= fValidLines[next - 1];
+        int after= fValidLines[next];
+        return (after - line <= line - before) ? after : before;
+    }
+
+    /**
+     * Maps a line of the generated code back to the source line it was generated from.
+     * If several source lines map onto the given line, the one whose generated range starts
+     * closest to it wins.
+     * @return the source line, or -1 if the given line isn't mapped
+     */
+    public int mapToSourceLine(int generatedLine) {
+        int i= upperBound(fOutputLo, generatedLine) - 1;
+
+        for(; i >= 0 && fMaxOutputHi[i] >= generatedLine; i--) {
+            if (fOutputHi[i] >= generatedLine) {
+                return fOutputSource[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bulk form of mapToSourceLine(int).
+     * @return an array parallel to generatedLines, containing -1 for each unmapped line
+     */
+    public int[] mapToSourceLines(int[] generatedLines) {
+        int[] result= new int[generatedLines.length];
+
+        for(int i= 0; i < generatedLines.length; i++) {
+            result[i]= mapToSourceLine(generatedLines[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the index of the first element of the sorted array a that is greater than key
+     */
+    private static int upperBound(int[] a, int key) {
+        int low= 0, high= a.length;
+
+        while (low < high) {
+            int mid= (low + high) >>> 1;
+            if (a[mid] <= key) {
+                low= mid + 1;
+            } else {
+                high= mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the number of line-info records in this table
+     */
+    public int size() {
+        return fInputStart.length;
+    }
+
+    /**
+     * Writes this table to the given file, replacing any existing contents.
+     */
+    public void write(File file) throws IOException {
+        File tmpFile= new File(file.getPath() + ".tmp");
+        DataOutputStream os= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+
+        try {
+            os.writeInt(MAGIC);
+            os.writeInt(fInputStart.length);
+            os.writeLong(fStamp);
+            for(int i= 0; i < fInputStart.length; i++) {
+                os.writeInt(fInputStart[i]);
+                os.writeInt(fRepeat[i]);
+                os.writeInt(fOutputStart[i]);
+                os.writeInt(fOutputIncrement[i]);
+            }
+        } finally {
+            os.close();
+        }
+        if (!tmpFile.renameTo(file)) {
+            file.delete();
+            if (!tmpFile.renameTo(file)) {
+                tmpFile.delete();
+                throw new IOException("Unable to write line table " + file);
+            }
+        }
+    }
+
+    /**
+     * Reads a table previously written by write(), using a memory-mapped read.
+     * @return the table, or null if the file doesn't exist, isn't a valid line table,
+     * or doesn't carry the expected stamp
+     */
+    public static StratumLineTable read(File file, long expectedStamp) throws IOException {
+        if (!file.isFile() || file.length() < HEADER_SIZE) {
+            return null;
+        }
+        RandomAccessFile raf= new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel= raf.getChannel();
+            MappedByteBuffer buf= channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buf.getInt() != MAGIC) {
+                return null;
+            }
+            int n= buf.getInt();
+            long stamp= buf.getLong();
+
+            if (stamp != expectedStamp || n < 0 || buf.remaining() < (long) n * RECORD_SIZE) {
+                return null;
+            }
+            int[] inputStart= new int[n];
+            int[] repeat= new int[n];
+            int[] outputStart= new int[n];
+            int[] outputIncrement= new int[n];
+
+            for(int i= 0; i < n; i++) {
+                inputStart[i]= buf.getInt();
+                repeat[i]= buf.getInt();
+                outputStart[i]= buf.getInt();
+                outputIncrement[i]= buf.getInt();
+            }
+            return new StratumLineTable(stamp, inputStart, repeat, outputStart, outputIncrement);
+        } finally {
+            raf.close();
+        }
+    }
+}
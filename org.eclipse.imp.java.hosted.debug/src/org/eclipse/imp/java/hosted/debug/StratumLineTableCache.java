@@ -0,0 +1,465 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.imp.java.hosted.BuildPathUtils;
+import org.eclipse.imp.smapi.LineMapBuilder;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Caches the StratumLineTable for each stratum source file. Tables are computed from
+ * the SMAPs in the class files generated from the source file, and are persisted in
+ * binary form in the plugin's state location, keyed by the location of the primary class
+ * file, so that after an IDE restart they can be re-loaded via a memory-mapped read rather
+ * than by re-parsing. (Writing them into the output folder would put the resource tree
+ * out of sync, and they would be deleted by the next clean build.) If no class file exists yet, the table is computed from the "//#line"
+ * comments in the generated Java source, as before.
+ * <p>
+ * At most MAX_ENTRIES tables are kept in memory, the least recently used being dropped
+ * first, and a file's table is dropped as soon as the file is changed, moved or deleted,
+ * or its project is closed or deleted. Persisted tables that haven't been used for
+ * MAX_TABLE_AGE are deleted in the background when the cache is first used in a session.
+ * <p>
+ * Tables are computed for a given stratum, or for the default stratum of each SMAP; a
+ * file's table is re-computed if it is asked for in another stratum than the cached one.
+ * <p>
+ * Java-hosted language builders can call update() after compiling a source file to
+ * write its line table eagerly.
+ * @author agent@local
+ */
+public class StratumLineTableCache {
+    public static final String LINE_TABLE_EXTENSION= "lntab";
+
+    private static final String LINE_TABLE_DIR= "lineTables";
+
+    /**
+     * The number of line tables kept in memory
+     */
+    private static final int MAX_ENTRIES= 500;
+
+    /**
+     * The time after which a persisted line table that hasn't been used is deleted
+     */
+    private static final long MAX_TABLE_AGE= 30L * 24 * 60 * 60 * 1000;
+
+    private static final StratumLineTableCache sInstance= new StratumLineTableCache();
+
+    private static class Entry {
+        final File fClassFile;
+        final String fStratum;
+        final StratumLineTable fTable;
+
+        Entry(File classFile, String stratum, StratumLineTable table) {
+            fClassFile= classFile;
+            fStratum= stratum;
+            fTable= table;
+        }
+    }
+
+    /**
+     * The cached tables, in access order, so that the least recently used one is dropped
+     * when the cache is full
+     */
+    private final Map<IFile, Entry> fEntries= new LinkedHashMap<IFile, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID= 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<IFile, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final IResourceChangeListener fListener= new IResourceChangeListener() {
+        public void resourceChanged(IResourceChangeEvent event) {
+            if (event.getType() == IResourceChangeEvent.POST_CHANGE) {
+                evict(event.getDelta());
+            } else if (event.getResource() instanceof IProject) {
+                invalidate((IProject) event.getResource());
+            }
+        }
+    };
+
+    private boolean fListening= false;
+
+    private StratumLineTableCache() { }
+
+    public static StratumLineTableCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * @return the line table for the given stratum source file in the default stratum of
+     * its SMAPs, or null if the line mapping for the file can't be determined
+     */
+    public StratumLineTable getLineTable(IFile origSrcFile) {
+        return getLineTable(origSrcFile, null);
+    }
+
+    /**
+     * @param stratum the stratum of interest, or null to use each SMAP's default stratum
+     * @return the line table for the given stratum source file, or null if the line mapping
+     * for the file can't be determined
+     */
+    public StratumLineTable getLineTable(IFile origSrcFile, String stratum) {
+        Entry entry;
+
+        synchronized (fEntries) {
+            entry= fEntries.get(origSrcFile);
+        }
+        if (entry != null && !sameStratum(entry.fStratum, stratum)) {
+            entry= null;
+        }
+        if (entry != null && entry.fClassFile != null && entry.fClassFile.lastModified() == entry.fTable.getStamp()) {
+            return entry.fTable;
+        }
+        if (entry != null && entry.fClassFile == null && generatedSourceStamp(origSrcFile) == entry.fTable.getStamp()) {
+            return entry.fTable;
+        }
+        return update(origSrcFile, stratum);
+    }
+
+    /**
+     * Re-computes the line table for the given stratum source file in the default stratum
+     * of its SMAPs.
+     * @see #update(IFile, String)
+     */
+    public StratumLineTable update(IFile origSrcFile) {
+        return update(origSrcFile, null);
+    }
+
+    /**
+     * Re-computes the line table for the given stratum source file, and persists it in the
+     * plugin's state location, if it was computed from a class file.
+     * @param stratum the stratum of interest, or null to use each SMAP's default stratum
+     * @return the new line table, or null if the line mapping for the file can't be determined
+     */
+    public StratumLineTable update(IFile origSrcFile, String stratum) {
+        File classFile= findClassFile(origSrcFile);
+        StratumLineTable table= null;
+
+        startListening();
+        if (classFile != null) {
+            table= loadFromClassFiles(origSrcFile, classFile, stratum);
+        }
+        if (table == null) {
+            classFile= null;
+            table= loadFromGeneratedSource(origSrcFile);
+        }
+        synchronized (fEntries) {
+            if (table != null) {
+                fEntries.put(origSrcFile, new Entry(classFile, stratum, table));
+            } else {
+                fEntries.remove(origSrcFile);
+            }
+        }
+        return table;
+    }
+
+    private static boolean sameStratum(String s1, String s2) {
+        return (s1 == null) ? s2 == null : s1.equals(s2);
+    }
+
+    /**
+     * Discards any cached line table for the given file.
+     */
+    public void invalidate(IFile origSrcFile) {
+        synchronized (fEntries) {
+            fEntries.remove(origSrcFile);
+        }
+    }
+
+    /**
+     * Discards the cached line tables of the files that the given delta reports as changed,
+     * moved or deleted, and deletes the persisted tables of the deleted ones.
+     */
+    private void evict(IResourceDelta delta) {
+        List<IFile> files;
+
+        synchronized (fEntries) {
+            if (fEntries.isEmpty()) {
+                return;
+            }
+            files= new ArrayList<IFile>(fEntries.keySet());
+        }
+        // Look up the (few) cached files in the delta, rather than visiting the whole delta
+        for(IFile file: files) {
+            IResourceDelta fileDelta= delta.findMember(file.getFullPath());
+
+            if (fileDelta == null) {
+                continue;
+            }
+            if (fileDelta.getKind() == IResourceDelta.REMOVED) {
+                Entry entry;
+
+                synchronized (fEntries) {
+                    entry= fEntries.remove(file);
+                }
+                if (entry != null && entry.fClassFile != null) {
+                    File tableFile= getTableFile(entry.fClassFile, entry.fStratum);
+
+                    if (tableFile != null) {
+                        tableFile.delete();
+                    }
+                }
+            } else if ((fileDelta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+                invalidate(file);
+            }
+        }
+    }
+
+    /**
+     * Discards the cached line tables for all files in the given project.
+     */
+    public void invalidate(IProject project) {
+        synchronized (fEntries) {
+            for(Iterator<IFile> iter= fEntries.keySet().iterator(); iter.hasNext(); ) {
+                if (iter.next().getProject().equals(project)) {
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    private StratumLineTable loadFromClassFiles(IFile origSrcFile, File classFile, String stratum) {
+        long stamp= classFile.lastModified();
+        String typeName= classFile.getName().substring(0, classFile.getName().length() - ".class".length());
+        File tableFile= getTableFile(classFile, stratum);
+
+        try {
+            StratumLineTable table= (tableFile != null) ? StratumLineTable.read(tableFile, stamp) : null;
+
+            if (table != null) {
+                // Mark the table as used, so that it isn't garbage-collected
+                tableFile.setLastModified(System.currentTimeMillis());
+                return table;
+            }
+
+            // Merge the SMAPs of the top-level class and any nested classes, since code
+            // in nested classes is mapped only by the nested classes' SMAPs.
+            final String nestedPrefix= typeName + "$";
+            File[] nestedClassFiles= classFile.getParentFile().listFiles(new FileFilter() {
+                public boolean accept(File f) {
+                    return f.getName().startsWith(nestedPrefix) && f.getName().endsWith(".class");
+                }
+            });
+            List<int[]> lineInfo= new ArrayList<int[]>();
+            boolean foundSmap= addLineInfo(classFile, stratum, origSrcFile.getName(), lineInfo);
+
+            if (nestedClassFiles != null) {
+                for(int i= 0; i < nestedClassFiles.length; i++) {
+                    foundSmap |= addLineInfo(nestedClassFiles[i], stratum, origSrcFile.getName(), lineInfo);
+                }
+            }
+            if (!foundSmap) {
+                return null;
+            }
+            table= new StratumLineTable(lineInfo, stamp);
+            if (tableFile != null) {
+                try {
+                    tableFile.getParentFile().mkdirs();
+                    table.write(tableFile);
+                } catch (IOException e) {
+                    Activator.logException("Unable to persist line table for " + origSrcFile.getFullPath(), e);
+                }
+            }
+            return table;
+        } catch (IOException e) {
+            Activator.logException("Unable to read line table for " + origSrcFile.getFullPath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the file in the plugin's state location in which the line table computed
+     * from the given class file for the given stratum is persisted, or null if the plugin
+     * isn't active
+     */
+    private File getTableFile(File classFile, String stratum) {
+        File dir= getTableDir();
+
+        if (dir == null) {
+            return null;
+        }
+        String key= (stratum != null) ? classFile.getAbsolutePath() + "\n" + stratum : classFile.getAbsolutePath();
+
+        return new File(dir, digest(key) + "." + LINE_TABLE_EXTENSION);
+    }
+
+    private static File getTableDir() {
+        Activator plugin= Activator.getDefault();
+
+        return (plugin != null) ? plugin.getStateLocation().append(LINE_TABLE_DIR).toFile() : null;
+    }
+
+    /**
+     * Starts evicting the tables of changed files, and schedules the deletion of the
+     * persisted tables that have gone unused, the first time it is called.
+     */
+    private void startListening() {
+        synchronized (this) {
+            if (fListening) {
+                return;
+            }
+            fListening= true;
+        }
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(fListener,
+                IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+        Activator.addStopHook(new Runnable() {
+            public void run() {
+                ResourcesPlugin.getWorkspace().removeResourceChangeListener(fListener);
+                synchronized (StratumLineTableCache.this) {
+                    fListening= false;
+                }
+            }
+        });
+
+        final File dir= getTableDir();
+
+        if (dir != null) {
+            Job job= new Job("Deleting unused line tables") {
+                protected IStatus run(IProgressMonitor monitor) {
+                    deleteUnusedTables(dir, System.currentTimeMillis() - MAX_TABLE_AGE);
+                    return Status.OK_STATUS;
+                }
+            };
+            job.setSystem(true);
+            job.setPriority(Job.DECORATE);
+            job.schedule();
+        }
+    }
+
+    /**
+     * Deletes the persisted line tables in the given directory that haven't been written
+     * or read since the given time, e.g. those of class files that no longer exist.
+     */
+    private static void deleteUnusedTables(File dir, long cutoff) {
+        File[] files= dir.listFiles();
+
+        if (files == null) {
+            return;
+        }
+        for(int i= 0; i < files.length; i++) {
+            if (files[i].getName().endsWith("." + LINE_TABLE_EXTENSION) && files[i].lastModified() < cutoff) {
+                files[i].delete();
+            }
+        }
+    }
+
+    private static String digest(String s) {
+        try {
+            byte[] bytes= MessageDigest.getInstance("SHA-1").digest(s.getBytes("UTF-8"));
+            StringBuilder sb= new StringBuilder(bytes.length * 2);
+
+            for(int i= 0; i < bytes.length; i++) {
+                sb.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16));
+                sb.append(Character.forDigit(bytes[i] & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    private boolean addLineInfo(File classFile, String stratum, String srcFileName, List<int[]> lineInfo) throws IOException {
+        String smap= SmapReader.readSourceDebugExtension(classFile);
+
+        if (smap == null) {
+            return false;
+        }
+        lineInfo.addAll(SmapReader.parseLineInfo(smap, stratum, srcFileName));
+        return true;
+    }
+
+    private StratumLineTable loadFromGeneratedSource(IFile origSrcFile) {
+        IPath generatedPath= origSrcFile.getRawLocation().removeFileExtension();
+        File generatedFile= generatedPath.addFileExtension("java").toFile();
+
+        if (!generatedFile.exists()) {
+            return null;
+        }
+        LineMapBuilder lmb= new LineMapBuilder(generatedPath.toString());
+        Map lineMap= lmb.getLineMap();
+        List<int[]> lineInfo= new ArrayList<int[]>(lineMap.size());
+
+        for(Object key: lineMap.keySet()) {
+            // The generated line isn't recorded here; only the set of valid source lines is needed.
+            lineInfo.add(new int[] { ((Integer) key).intValue(), 1, 0, 0 });
+        }
+        return new StratumLineTable(lineInfo, generatedFile.lastModified());
+    }
+
+    private long generatedSourceStamp(IFile origSrcFile) {
+        return origSrcFile.getRawLocation().removeFileExtension().addFileExtension("java").toFile().lastModified();
+    }
+
+    /**
+     * @return the primary class file generated from the given stratum source file, or null
+     * if it doesn't exist (e.g. the project hasn't been built yet)
+     */
+    private File findClassFile(IFile origSrcFile) {
+        IJavaProject javaProj= JavaCore.create(origSrcFile.getProject());
+
+        if (!javaProj.exists()) {
+            return null;
+        }
+        try {
+            IPath outputLocation= javaProj.getOutputLocation();
+            IPath filePath= origSrcFile.getFullPath();
+
+            IClasspathEntry srcEntry= BuildPathUtils.getSourceEntry(filePath, javaProj);
+
+            if (srcEntry != null && srcEntry.getOutputLocation() != null) {
+                outputLocation= srcEntry.getOutputLocation();
+            }
+            String typeName= BreakpointUtils.getTypeName(origSrcFile);
+            IPath classPath= outputLocation.append(typeName.replace('.', '/')).addFileExtension("class");
+            IPath classLocation= origSrcFile.getWorkspace().getRoot().getFile(classPath).getLocation();
+
+            if (classLocation == null) {
+                return null;
+            }
+            File classFile= classLocation.toFile();
+
+            return classFile.isFile() ? classFile : null;
+        } catch (JavaModelException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.imp.java.hosted.Activator;
+
+/**
+ * An index from source file names to the workspace files of that name, for the file
+ * extensions of the Java-hosted languages that have registered with it. Each project is
+ * indexed the first time a lookup is scoped to it, and thereafter maintained from resource
+ * deltas, so that mapping a stratum source name or path to an IFile neither searches the
+ * workspace nor scans projects that no lookup cares about.
+ * @author agent@local
+ */
+public class StratumSourceIndex {
+    private static StratumSourceIndex sInstance;
+
+    private static final IFile[] NO_FILES= new IFile[0];
+
+    private final Set<String> fExtensions= new HashSet<String>();
+
+    private final Map<String, IFile[]> fFilesByName= new HashMap<String, IFile[]>();
+
+    /**
+     * The projects whose files have been added to the index
+     */
+    private final Set<IProject> fIndexedProjects= new HashSet<IProject>();
+
+    private final IResourceChangeListener fListener= new IResourceChangeListener() {
+        public void resourceChanged(IResourceChangeEvent event) {
+            if (event.getDelta() != null) {
+                processDelta(event.getDelta());
+            }
+        }
+    };
+
+    private StratumSourceIndex() {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(fListener, IResourceChangeEvent.POST_CHANGE);
+    }
+
+    public static synchronized StratumSourceIndex getInstance() {
+        if (sInstance == null) {
+            sInstance= new StratumSourceIndex();
+            Activator.addStopHook(new Runnable() {
+                public void run() {
+                    shutdown();
+                }
+            });
+        }
+        return sInstance;
+    }
+
+    /**
+     * Removes the index's resource listener, if it was ever created. Registered with the
+     * Activator to be called when the plugin stops.
+     */
+    public static synchronized void shutdown() {
+        if (sInstance != null) {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(sInstance.fListener);
+            sInstance= null;
+        }
+    }
+
+    /**
+     * Adds the given file extensions (without the '.') to the set of indexed extensions.
+     */
+    public synchronized void addExtensions(String[] extensions) {
+        for(int i= 0; i < extensions.length; i++) {
+            if (fExtensions.add(extensions[i])) {
+                // re-scan to pick up files with the new extension
+                fFilesByName.clear();
+                fIndexedProjects.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the files in the workspace with the given name (possibly empty, never null)
+     */
+    public IFile[] findFiles(String sourceName) {
+        return findFiles(sourceName, null, new IContainer[] { ResourcesPlugin.getWorkspace().getRoot() });
+    }
+
+    /**
+     * @return the files in the workspace with the given name whose paths end with the given
+     * path (possibly empty, never null)
+     * @see #findFiles(String, String, IContainer[])
+     */
+    public IFile[] findFiles(String sourceName, String sourcePath) {
+        return findFiles(sourceName, sourcePath, new IContainer[] { ResourcesPlugin.getWorkspace().getRoot() });
+    }
+
+    /**
+     * @param sourcePath a path whose last segment is the source file name, e.g. a stratum
+     * source path such as "a/b/Foo.x10"; may be relative to a source folder, to a project,
+     * or to the workspace; or null
+     * @param scope the containers to which to restrict the search
+     * @return the files within the given containers that have the given name and, if any
+     * of them do, whose paths end with the given path (possibly empty, never null)
+     */
+    public IFile[] findFiles(String sourceName, String sourcePath, IContainer[] scope) {
+        IFile[] candidates= findFilesIn(sourceName, scope);
+
+        if (sourcePath == null || candidates.length <= 1) {
+            return candidates;
+        }
+        IPath path= new Path(sourcePath);
+        List<IFile> result= new ArrayList<IFile>(1);
+
+        for(int i= 0; i < candidates.length; i++) {
+            IPath fullPath= candidates[i].getFullPath();
+            int n= path.segmentCount();
+
+            if (fullPath.segmentCount() >= n && fullPath.removeFirstSegments(fullPath.segmentCount() - n).equals(path.makeRelative())) {
+                result.add(candidates[i]);
+            }
+        }
+        return result.isEmpty() ? candidates : result.toArray(new IFile[result.size()]);
+    }
+
+    private synchronized IFile[] findFilesIn(String sourceName, IContainer[] scope) {
+        for(int i= 0; i < scope.length; i++) {
+            ensureIndexed(scope[i]);
+        }
+        IFile[] files= fFilesByName.get(sourceName);
+
+        if (files == null) {
+            return NO_FILES;
+        }
+        List<IFile> result= new ArrayList<IFile>(files.length);
+
+        for(int i= 0; i < files.length; i++) {
+            for(int j= 0; j < scope.length; j++) {
+                if (scope[j].getFullPath().isPrefixOf(files[i].getFullPath())) {
+                    result.add(files[i]);
+                    break;
+                }
+            }
+        }
+        return result.toArray(new IFile[result.size()]);
+    }
+
+    private void ensureIndexed(IContainer container) {
+        if (container.getType() == IResource.ROOT) {
+            IProject[] projects= ((IWorkspaceRoot) container).getProjects();
+
+            for(int i= 0; i < projects.length; i++) {
+                ensureIndexed(projects[i]);
+            }
+            return;
+        }
+        IProject project= container.getProject();
+
+        if (!fExtensions.isEmpty() && project.isOpen() && fIndexedProjects.add(project)) {
+            scan(project);
+        }
+    }
+
+    private void scan(IContainer container) {
+        try {
+            container.accept(new IResourceVisitor() {
+                public boolean visit(IResource resource) throws CoreException {
+                    if (resource.getType() == IResource.FILE) {
+                        add((IFile) resource);
+                        return false;
+                    }
+                    return resource.getType() != IResource.PROJECT || ((IProject) resource).isOpen();
+                }
+            });
+        } catch (CoreException e) {
+            Activator.logException("Unable to index stratum source files in " + container.getFullPath(), e);
+        }
+    }
+
+    private void add(IFile file) {
+        if (!fExtensions.contains(file.getFileExtension())) {
+            return;
+        }
+        IFile[] files= fFilesByName.get(file.getName());
+
+        if (files == null) {
+            fFilesByName.put(file.getName(), new IFile[] { file });
+            return;
+        }
+        for(int i= 0; i < files.length; i++) {
+            if (files[i].equals(file)) {
+                return;
+            }
+        }
+        IFile[] newFiles= new IFile[files.length + 1];
+        System.arraycopy(files, 0, newFiles, 0, files.length);
+        newFiles[files.length]= file;
+        fFilesByName.put(file.getName(), newFiles);
+    }
+
+    private void remove(IFile file) {
+        IFile[] files= fFilesByName.get(file.getName());
+
+        if (files == null) {
+            return;
+        }
+        List<IFile> remaining= new ArrayList<IFile>(files.length);
+        for(int i= 0; i < files.length; i++) {
+            if (!files[i].equals(file)) {
+                remaining.add(files[i]);
+            }
+        }
+        if (remaining.isEmpty()) {
+            fFilesByName.remove(file.getName());
+        } else {
+            fFilesByName.put(file.getName(), remaining.toArray(new IFile[remaining.size()]));
+        }
+    }
+
+    /**
+     * Removes all indexed files at or below the given path.
+     */
+    private void removeAll(IPath path) {
+        for(Iterator<Map.Entry<String, IFile[]>> iter= fFilesByName.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String, IFile[]> entry= iter.next();
+            IFile[] files= entry.getValue();
+            List<IFile> remaining= new ArrayList<IFile>(files.length);
+
+            for(int i= 0; i < files.length; i++) {
+                if (!path.isPrefixOf(files[i].getFullPath())) {
+                    remaining.add(files[i]);
+                }
+            }
+            if (remaining.isEmpty()) {
+                iter.remove();
+            } else if (remaining.size() < files.length) {
+                entry.setValue(remaining.toArray(new IFile[remaining.size()]));
+            }
+        }
+    }
+
+    private synchronized void processDelta(IResourceDelta delta) {
+        if (fIndexedProjects.isEmpty()) {
+            return; // will be picked up when first indexed
+        }
+        try {
+            delta.accept(new IResourceDeltaVisitor() {
+                public boolean visit(IResourceDelta delta) throws CoreException {
+                    IResource resource= delta.getResource();
+
+                    if (resource.getType() == IResource.FILE) {
+                        if (delta.getKind() == IResourceDelta.ADDED) {
+                            add((IFile) resource);
+                        } else if (delta.getKind() == IResourceDelta.REMOVED) {
+                            remove((IFile) resource);
+                        }
+                        return false;
+                    }
+                    if (resource.getType() == IResource.PROJECT) {
+                        if (!fIndexedProjects.contains(resource)) {
+                            return false; // will be picked up when first indexed
+                        }
+                        if (delta.getKind() == IResourceDelta.REMOVED || (delta.getFlags() & IResourceDelta.OPEN) != 0) {
+                            removeAll(resource.getFullPath());
+                            fIndexedProjects.remove(resource); // re-indexed on the next lookup, if open
+                            return false;
+                        }
+                    }
+                    if (delta.getKind() == IResourceDelta.REMOVED) {
+                        removeAll(resource.getFullPath());
+                        return false;
+                    }
+                    return true;
+                }
+            });
+        } catch (CoreException e) {
+            Activator.logException("Error processing resource delta", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+/**
+ * An immutable location in a stratum source file, as named by a class file's SMAP.
+ * @author agent@local
+ */
+public class StratumSourceLocation {
+    private final String fSourceName;
+
+    private final String fSourcePath;
+
+    private final int fLineNumber;
+
+    public StratumSourceLocation(String sourceName, String sourcePath, int lineNumber) {
+        fSourceName= sourceName;
+        fSourcePath= sourcePath;
+        fLineNumber= lineNumber;
+    }
+
+    /**
+     * @return the source file name, e.g. "Foo.x10"
+     */
+    public String getSourceName() {
+        return fSourceName;
+    }
+
+    /**
+     * @return the source file path recorded in the SMAP, or null if none was recorded
+     */
+    public String getSourcePath() {
+        return fSourcePath;
+    }
+
+    public int getLineNumber() {
+        return fLineNumber;
+    }
+
+    public String toString() {
+        return (fSourcePath != null ? fSourcePath : fSourceName) + ":" + fLineNumber;
+    }
+}
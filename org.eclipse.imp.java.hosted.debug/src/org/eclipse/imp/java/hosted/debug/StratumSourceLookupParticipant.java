@@ -0,0 +1,145 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.sourcelookup.AbstractSourceLookupParticipant;
+import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.debug.core.sourcelookup.ISourceLookupDirector;
+import org.eclipse.debug.core.sourcelookup.containers.ContainerSourceContainer;
+import org.eclipse.debug.core.sourcelookup.containers.ProjectSourceContainer;
+import org.eclipse.imp.java.hosted.ActivationTrace;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
+import org.eclipse.jdt.launching.sourcelookup.containers.JavaProjectSourceContainer;
+import org.eclipse.jdt.launching.sourcelookup.containers.PackageFragmentRootSourceContainer;
+
+/**
+ * Source lookup participant for languages that are hosted on a Java VM. Maps the stratum
+ * source name and path of a suspended stack frame to the corresponding workspace file via
+ * the StratumSourceIndex, restricted to the workspace containers that the director's source
+ * containers would search, rather than searching the source containers themselves. Falls
+ * back to the source containers if the index has no match, or if it has several matches
+ * and the director doesn't want duplicates, so that an arbitrary one isn't picked.
+ * <p>
+ * Language-specific source lookup directors should add an instance of this participant,
+ * configured with the language's stratum ID and source file extensions.
+ * @author agent@local
+ */
+public class StratumSourceLookupParticipant extends AbstractSourceLookupParticipant {
+    private final String fStratumID;
+
+    /**
+     * @param stratumID the stratum, as named in the SMAPs of the language's class files
+     * @param extensions the language's source file extensions, without the '.'
+     */
+    public StratumSourceLookupParticipant(String stratumID, String[] extensions) {
+        fStratumID= stratumID;
+        StratumSourceIndex.getInstance().addExtensions(extensions);
+    }
+
+    public String getSourceName(Object object) throws CoreException {
+        if (object instanceof IJavaStackFrame) {
+            return ((IJavaStackFrame) object).getSourceName(fStratumID);
+        }
+        return null;
+    }
+
+    public Object[] findSourceElements(Object object) throws CoreException {
+        long start= ActivationTrace.start();
+        try {
+            return doFindSourceElements(object);
+        } finally {
+            ActivationTrace.end("StratumSourceLookupParticipant.findSourceElements(Object)", start);
+        }
+    }
+
+    private Object[] doFindSourceElements(Object object) throws CoreException {
+        if (object instanceof IJavaStackFrame) {
+            IJavaStackFrame frame= (IJavaStackFrame) object;
+            String sourceName= frame.getSourceName(fStratumID);
+
+            if (sourceName != null) {
+                IContainer[] scope= getSearchScope();
+
+                if (scope.length > 0) {
+                    IFile[] files= StratumSourceIndex.getInstance().findFiles(sourceName, frame.getSourcePath(fStratumID), scope);
+
+                    if (files.length == 1 || (files.length > 1 && isFindDuplicates())) {
+                        return files;
+                    }
+                }
+            }
+        }
+        return super.findSourceElements(object);
+    }
+
+    /**
+     * @return the workspace containers searched by the director's source containers;
+     * containers outside of the workspace (e.g. archives and external directories) are
+     * left to the source containers themselves
+     */
+    private IContainer[] getSearchScope() throws CoreException {
+        ISourceLookupDirector director= getDirector();
+        List<IContainer> scope= new ArrayList<IContainer>();
+
+        if (director != null) {
+            addSearchScope(director.getSourceContainers(), scope);
+        }
+        return scope.toArray(new IContainer[scope.size()]);
+    }
+
+    private void addSearchScope(ISourceContainer[] containers, List<IContainer> scope) throws CoreException {
+        for(int i= 0; i < containers.length; i++) {
+            ISourceContainer container= containers[i];
+
+            if (container instanceof ProjectSourceContainer) {
+                IProject project= (IProject) ((ProjectSourceContainer) container).getContainer();
+
+                addProject(project, ((ProjectSourceContainer) container).isSearchReferencedProjects(), scope);
+            } else if (container instanceof ContainerSourceContainer) {
+                // Covers any sub-folder containers, so there's no need to compute them
+                scope.add(((ContainerSourceContainer) container).getContainer());
+            } else if (container instanceof JavaProjectSourceContainer) {
+                addProject(((JavaProjectSourceContainer) container).getJavaProject().getProject(), false, scope);
+            } else if (container instanceof PackageFragmentRootSourceContainer) {
+                IResource resource= ((PackageFragmentRootSourceContainer) container).getPackageFragmentRoot().getResource();
+
+                if (resource instanceof IContainer) {
+                    scope.add((IContainer) resource);
+                }
+            } else if (container.isComposite()) {
+                addSearchScope(container.getSourceContainers(), scope);
+            }
+        }
+    }
+
+    private void addProject(IProject project, boolean withReferencedProjects, List<IContainer> scope) throws CoreException {
+        if (scope.contains(project)) {
+            return;
+        }
+        scope.add(project);
+        if (withReferencedProjects && project.isOpen()) {
+            IProject[] referenced= project.getReferencedProjects();
+
+            for(int i= 0; i < referenced.length; i++) {
+                addProject(referenced[i], true, scope);
+            }
+        }
+    }
+}
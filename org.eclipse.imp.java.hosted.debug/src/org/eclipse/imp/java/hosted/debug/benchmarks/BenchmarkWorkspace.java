@@ -0,0 +1,213 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.ICommand;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.imp.java.hosted.debug.StratumLineTable;
+import org.eclipse.imp.java.hosted.debug.StratumLineTableCache;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Creates a synthetic Java-hosted project for the debug benchmarks: a Java project with
+ * a "src" folder of stratum source files and a "bin" folder holding, for each source file,
+ * a class file whose SMAP maps every other source line to generated code. No compiler
+ * or display is needed, so the benchmarks can run headless against a temporary workspace.
+ * The project has no builders, so that no build (e.g. an auto-build in a fresh workspace)
+ * clears the output folder, and with it the synthetic class files.
+ */
+public class BenchmarkWorkspace {
+    public static final String STRATUM= "bench";
+
+    private static final String PACKAGE= "bench";
+
+    private final IProject fProject;
+
+    private final List<IFile> fFiles= new ArrayList<IFile>();
+
+    private final int fLinesPerFile;
+
+    /**
+     * Creates (or re-creates) the benchmark project in the current workspace.
+     */
+    public BenchmarkWorkspace(String projectName, final int numFiles, int linesPerFile) throws CoreException {
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+        fProject= workspace.getRoot().getProject(projectName);
+        fLinesPerFile= linesPerFile;
+        workspace.run(new IWorkspaceRunnable() {
+            public void run(IProgressMonitor monitor) throws CoreException {
+                createProject(numFiles);
+            }
+        }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, null);
+        checkLineTables();
+    }
+
+    public IProject getProject() {
+        return fProject;
+    }
+
+    public List<IFile> getFiles() {
+        return fFiles;
+    }
+
+    public int getLinesPerFile() {
+        return fLinesPerFile;
+    }
+
+    /**
+     * @return true if the SMAP of the given file's class maps the given line
+     */
+    public static boolean isMappedLine(int line) {
+        return (line % 2) == 1;
+    }
+
+    public void dispose() throws CoreException {
+        removeAllBreakpoints();
+        fProject.delete(true, true, null);
+    }
+
+    public static void removeAllBreakpoints() throws CoreException {
+        IBreakpointManager manager= DebugPlugin.getDefault().getBreakpointManager();
+
+        manager.removeBreakpoints(manager.getBreakpoints(), true);
+    }
+
+    private void createProject(int numFiles) throws CoreException {
+        if (fProject.exists()) {
+            fProject.delete(true, true, null);
+        }
+        fProject.create(null);
+        fProject.open(null);
+
+        IProjectDescription desc= fProject.getDescription();
+        desc.setNatureIds(new String[] { JavaCore.NATURE_ID });
+        fProject.setDescription(desc, null);
+        // Configuring the Java nature added the Java builder, which would clear "bin"
+        desc= fProject.getDescription();
+        desc.setBuildSpec(new ICommand[0]);
+        fProject.setDescription(desc, null);
+
+        IFolder srcPkg= fProject.getFolder("src");
+        IFolder binPkg= fProject.getFolder("bin");
+        srcPkg.create(true, true, null);
+        binPkg.create(IResource.FORCE | IResource.DERIVED, true, null);
+        srcPkg= srcPkg.getFolder(PACKAGE);
+        binPkg= binPkg.getFolder(PACKAGE);
+        srcPkg.create(true, true, null);
+        binPkg.create(IResource.FORCE | IResource.DERIVED, true, null);
+
+        IJavaProject javaProject= JavaCore.create(fProject);
+        javaProject.setRawClasspath(new IClasspathEntry[] { JavaCore.newSourceEntry(fProject.getFullPath().append("src")) },
+                fProject.getFullPath().append("bin"), null);
+
+        StringBuilder sb= new StringBuilder();
+        for(int line= 1; line <= fLinesPerFile; line++) {
+            sb.append("stmt").append(line).append(";\n");
+        }
+        byte[] contents= sb.toString().getBytes();
+
+        for(int i= 0; i < numFiles; i++) {
+            String typeName= "File" + i;
+            IFile srcFile= srcPkg.getFile(typeName + "." + STRATUM);
+
+            srcFile.create(new ByteArrayInputStream(contents), IResource.FORCE, null);
+            binPkg.getFile(typeName + ".class").create(new ByteArrayInputStream(createClassFile(typeName, srcFile.getName())), IResource.FORCE, null);
+            fFiles.add(srcFile);
+        }
+    }
+
+    /**
+     * Makes sure that the line table of each source file can be loaded from its class file,
+     * so that the benchmarks don't silently time the "no line table" path instead.
+     */
+    private void checkLineTables() throws CoreException {
+        for(IFile file: fFiles) {
+            StratumLineTable lineTable= StratumLineTableCache.getInstance().getLineTable(file);
+
+            if (lineTable == null || !lineTable.isValidLine(1)) {
+                throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Unable to load the line table of benchmark file " + file.getFullPath()));
+            }
+        }
+    }
+
+    /**
+     * @return a minimal, valid class file for the given type whose only attribute is a
+     * SourceDebugExtension mapping each odd source line n to generated line 10+n
+     */
+    private byte[] createClassFile(String typeName, String srcFileName) throws CoreException {
+        StringBuilder smap= new StringBuilder();
+        smap.append("SMAP\n").append(typeName).append(".java\n").append(STRATUM).append('\n');
+        smap.append("*S ").append(STRATUM).append('\n');
+        smap.append("*F\n+ 1 ").append(srcFileName).append('\n').append(PACKAGE).append('/').append(srcFileName).append('\n');
+        smap.append("*L\n");
+        for(int line= 1; line <= fLinesPerFile; line++) {
+            if (isMappedLine(line)) {
+                smap.append(line).append("#1:").append(10 + line).append('\n');
+            }
+        }
+        smap.append("*E\n");
+
+        try {
+            byte[] smapBytes= smap.toString().getBytes("UTF-8");
+            ByteArrayOutputStream bos= new ByteArrayOutputStream();
+            DataOutputStream os= new DataOutputStream(bos);
+
+            os.writeInt(0xCAFEBABE);
+            os.writeShort(0); // minor version
+            os.writeShort(49); // major version (Java 5)
+            os.writeShort(6); // constant pool count
+            os.writeByte(1); os.writeUTF(PACKAGE + "/" + typeName); // #1
+            os.writeByte(7); os.writeShort(1); // #2: this class
+            os.writeByte(1); os.writeUTF("java/lang/Object"); // #3
+            os.writeByte(7); os.writeShort(3); // #4: super class
+            os.writeByte(1); os.writeUTF("SourceDebugExtension"); // #5
+            os.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+            os.writeShort(2);
+            os.writeShort(4);
+            os.writeShort(0); // interfaces
+            os.writeShort(0); // fields
+            os.writeShort(0); // methods
+            os.writeShort(1); // attributes
+            os.writeShort(5);
+            os.writeInt(smapBytes.length);
+            os.write(smapBytes);
+            os.close();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Unable to create class file for " + typeName, e));
+        }
+    }
+}
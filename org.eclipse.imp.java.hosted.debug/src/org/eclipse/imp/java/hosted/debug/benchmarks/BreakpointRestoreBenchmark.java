@@ -0,0 +1,100 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.imp.java.hosted.debug.JavaBreakpointHandler;
+import org.eclipse.imp.java.hosted.debug.StratumBreakpointLineTracker;
+
+/**
+ * Headless application that measures the cost of restoring a large set of stratum
+ * breakpoints, once by calling JavaBreakpointHandler.setLineBreakpoint() per line and
+ * once through the bulk JavaBreakpointHandler.setLineBreakpoints() path.
+ * <p>
+ * Run with, e.g.:
+ * <pre>
+ * eclipse -nosplash -data /tmp/bench-ws -application org.eclipse.imp.java.hosted.breakpointRestoreBenchmark -files 100 -lines 100
+ * </pre>
+ * The defaults (100 files of 100 breakpoints each) restore 10,000 breakpoints.
+ */
+public class BreakpointRestoreBenchmark implements IApplication {
+    private int fNumFiles= 100;
+
+    private int fLinesPerFile= 100;
+
+    private int fIterations= 3;
+
+    public Object start(IApplicationContext context) throws Exception {
+        parseArgs((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS));
+
+        // Measure with the line tracker listening to breakpoint changes, as in a language's IDE
+        StratumBreakpointLineTracker.getInstance().install();
+        BenchmarkWorkspace ws= new BenchmarkWorkspace("breakpointRestoreBenchmark", fNumFiles, fLinesPerFile);
+        try {
+            Map<IFile, int[]> lines= new LinkedHashMap<IFile, int[]>();
+            JavaBreakpointHandler handler= new JavaBreakpointHandler(BenchmarkWorkspace.STRATUM) { };
+
+            for(IFile file: ws.getFiles()) {
+                int[] fileLines= new int[fLinesPerFile];
+                for(int line= 0; line < fLinesPerFile; line++) {
+                    fileLines[line]= line + 1;
+                }
+                lines.put(file, fileLines);
+            }
+
+            System.out.println("Restoring " + (fNumFiles * fLinesPerFile) + " breakpoints in " + fNumFiles + " files");
+            for(int iter= 0; iter < fIterations; iter++) {
+                long start= System.nanoTime();
+                for(Map.Entry<IFile, int[]> entry: lines.entrySet()) {
+                    int[] fileLines= entry.getValue();
+                    for(int i= 0; i < fileLines.length; i++) {
+                        handler.setLineBreakpoint(entry.getKey(), fileLines[i]);
+                    }
+                }
+                long perLine= System.nanoTime() - start;
+                BenchmarkWorkspace.removeAllBreakpoints();
+
+                start= System.nanoTime();
+                handler.setLineBreakpoints(lines);
+                long bulk= System.nanoTime() - start;
+                BenchmarkWorkspace.removeAllBreakpoints();
+
+                System.out.println("iteration " + iter + ": per-line " + (perLine / 1000000) + " ms, bulk " + (bulk / 1000000) + " ms");
+            }
+        } finally {
+            ws.dispose();
+        }
+        return IApplication.EXIT_OK;
+    }
+
+    public void stop() { }
+
+    private void parseArgs(String[] args) {
+        if (args == null) {
+            return;
+        }
+        for(int i= 0; i + 1 < args.length; i++) {
+            if (args[i].equals("-files")) {
+                fNumFiles= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-lines")) {
+                fLinesPerFile= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-iterations")) {
+                fIterations= Integer.parseInt(args[++i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug.benchmarks;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.imp.java.hosted.debug.BreakpointUtils;
+import org.eclipse.imp.java.hosted.debug.JavaBreakpointHandler;
+import org.eclipse.imp.java.hosted.debug.StratumBreakpointLineTracker;
+import org.eclipse.imp.java.hosted.debug.StratumLineTableCache;
+
+/**
+ * Headless benchmark suite for the hot paths of the debug support: setting, finding,
+ * enabling/disabling and resetting stratum breakpoints, and validating line numbers.
+ * Each operation is timed per invocation and reported as latency percentiles, together
+ * with the bytes allocated per invocation (where the VM supports it), as CSV so that
+ * results can be compared from release to release.
+ * <p>
+ * Needs no display; run against a temporary workspace, e.g.:
+ * <pre>
+ * eclipse -nosplash -data /tmp/bench-ws -application org.eclipse.imp.java.hosted.debugBenchmarks \
+ *     -files 50 -breakpoints 40 -lines 200 -iterations 5 -out /tmp/debug-bench.csv
+ * </pre>
+ * Options: -files (number of source files), -lines (lines per file), -breakpoints
+ * (breakpoints per file), -iterations (measured iterations), -warmup (unmeasured
+ * iterations), -seed (for the random lookups) and -out (CSV report file; defaults
+ * to standard output).
+ */
+public class DebugBenchmarkSuite implements IApplication {
+    private int fNumFiles= 50;
+
+    private int fLinesPerFile= 200;
+
+    private int fBkptsPerFile= 40;
+
+    private int fIterations= 5;
+
+    private int fWarmup= 1;
+
+    private long fSeed= 42;
+
+    private String fOutFile;
+
+    public Object start(IApplicationContext context) throws Exception {
+        parseArgs((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS));
+
+        if (fBkptsPerFile > fLinesPerFile / 2) {
+            fBkptsPerFile= fLinesPerFile / 2; // only every other line is valid
+        }
+        // Measure with the line tracker listening to breakpoint changes, as in a language's IDE
+        StratumBreakpointLineTracker.getInstance().install();
+        BenchmarkWorkspace ws= new BenchmarkWorkspace("debugBenchmarks", fNumFiles, fLinesPerFile);
+        try {
+            for(int i= 0; i < fWarmup; i++) {
+                runIteration(ws, new ArrayList<LatencyRecorder>());
+            }
+            List<LatencyRecorder> results= new ArrayList<LatencyRecorder>();
+            for(int i= 0; i < fIterations; i++) {
+                runIteration(ws, results);
+            }
+            report(merge(results));
+        } finally {
+            ws.dispose();
+        }
+        return IApplication.EXIT_OK;
+    }
+
+    public void stop() { }
+
+    private void runIteration(BenchmarkWorkspace ws, List<LatencyRecorder> results) throws CoreException {
+        JavaBreakpointHandler handler= new JavaBreakpointHandler(BenchmarkWorkspace.STRATUM) { };
+        List<IFile> files= ws.getFiles();
+        int[] lines= new int[fBkptsPerFile];
+        Random random= new Random(fSeed);
+
+        for(int i= 0; i < lines.length; i++) {
+            lines[i]= 2 * i + 1; // mapped lines only
+        }
+
+        BenchmarkWorkspace.removeAllBreakpoints();
+
+        LatencyRecorder set= record(results, "setLineBreakpoint");
+        for(IFile file: files) {
+            for(int i= 0; i < lines.length; i++) {
+                long start= System.nanoTime();
+                handler.setLineBreakpoint(file, lines[i]);
+                set.add(System.nanoTime() - start);
+            }
+        }
+        set.stopAllocations();
+
+        LatencyRecorder find= record(results, "findStratumBreakpoint");
+        for(int i= 0, n= files.size() * lines.length; i < n; i++) {
+            IFile file= files.get(random.nextInt(files.size()));
+            int line= lines[random.nextInt(lines.length)];
+            long start= System.nanoTime();
+            JavaBreakpointHandler.findStratumBreakpoint(file, line);
+            find.add(System.nanoTime() - start);
+        }
+        find.stopAllocations();
+
+        LatencyRecorder disable= record(results, "disableLineBreakpoint");
+        for(IFile file: files) {
+            for(int i= 0; i < lines.length; i++) {
+                long start= System.nanoTime();
+                handler.disableLineBreakpoint(file, lines[i]);
+                disable.add(System.nanoTime() - start);
+            }
+        }
+        disable.stopAllocations();
+
+        LatencyRecorder enable= record(results, "enableLineBreakpoint");
+        for(IFile file: files) {
+            for(int i= 0; i < lines.length; i++) {
+                long start= System.nanoTime();
+                handler.enableLineBreakpoint(file, lines[i]);
+                enable.add(System.nanoTime() - start);
+            }
+        }
+        enable.stopAllocations();
+
+        LatencyRecorder bulkDisable= record(results, "disableLineBreakpoints(file)");
+        for(IFile file: files) {
+            long start= System.nanoTime();
+            handler.disableLineBreakpoints(file, lines);
+            bulkDisable.add(System.nanoTime() - start);
+        }
+        bulkDisable.stopAllocations();
+
+        LatencyRecorder bulkEnable= record(results, "enableLineBreakpoints(file)");
+        for(IFile file: files) {
+            long start= System.nanoTime();
+            handler.enableLineBreakpoints(file, lines);
+            bulkEnable.add(System.nanoTime() - start);
+        }
+        bulkEnable.stopAllocations();
+
+        for(IFile file: files) {
+            StratumLineTableCache.getInstance().invalidate(file);
+        }
+        LatencyRecorder validateCold= record(results, "validateLineNumber(cold)");
+        for(IFile file: files) {
+            long start= System.nanoTime();
+            BreakpointUtils.validateLineNumber(file, Integer.valueOf(1));
+            validateCold.add(System.nanoTime() - start);
+        }
+        validateCold.stopAllocations();
+
+        LatencyRecorder validateWarm= record(results, "validateLineNumber(warm)");
+        for(IFile file: files) {
+            for(int line= 1; line <= ws.getLinesPerFile(); line++) {
+                Integer lineNum= Integer.valueOf(line);
+                long start= System.nanoTime();
+                BreakpointUtils.validateLineNumber(file, lineNum);
+                validateWarm.add(System.nanoTime() - start);
+            }
+        }
+        validateWarm.stopAllocations();
+
+        LatencyRecorder reset= record(results, "resetJavaBreakpoints");
+        for(IFile file: files) {
+            long start= System.nanoTime();
+            BreakpointUtils.resetJavaBreakpoints(file);
+            reset.add(System.nanoTime() - start);
+        }
+        reset.stopAllocations();
+
+        LatencyRecorder clear= record(results, "clearLineBreakpoint");
+        for(IFile file: files) {
+            for(int i= 0; i < lines.length; i++) {
+                long start= System.nanoTime();
+                handler.clearLineBreakpoint(file, lines[i]);
+                clear.add(System.nanoTime() - start);
+            }
+        }
+        clear.stopAllocations();
+    }
+
+    private LatencyRecorder record(List<LatencyRecorder> results, String name) {
+        LatencyRecorder recorder= new LatencyRecorder(name);
+
+        results.add(recorder);
+        recorder.startAllocations();
+        return recorder;
+    }
+
+    /**
+     * Combines the recorders of all iterations for each operation, preserving the order
+     * in which the operations were first run.
+     */
+    private List<LatencyRecorder> merge(List<LatencyRecorder> results) {
+        List<LatencyRecorder> merged= new ArrayList<LatencyRecorder>();
+
+        for(LatencyRecorder r: results) {
+            LatencyRecorder target= null;
+            for(LatencyRecorder m: merged) {
+                if (m.getName().equals(r.getName())) {
+                    target= m;
+                    break;
+                }
+            }
+            if (target == null) {
+                merged.add(r);
+            } else {
+                target.addAll(r);
+            }
+        }
+        return merged;
+    }
+
+    private void report(List<LatencyRecorder> results) throws IOException {
+        PrintWriter pw= (fOutFile != null) ? new PrintWriter(new FileWriter(fOutFile)) : new PrintWriter(System.out);
+
+        try {
+            pw.println("# files=" + fNumFiles + " lines=" + fLinesPerFile + " breakpoints/file=" + fBkptsPerFile + " iterations=" + fIterations);
+            pw.println(LatencyRecorder.header());
+            for(LatencyRecorder r: results) {
+                pw.println(r);
+            }
+        } finally {
+            pw.flush();
+            if (fOutFile != null) {
+                pw.close();
+            }
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        if (args == null) {
+            return;
+        }
+        for(int i= 0; i + 1 < args.length; i++) {
+            if (args[i].equals("-files")) {
+                fNumFiles= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-lines")) {
+                fLinesPerFile= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-breakpoints")) {
+                fBkptsPerFile= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-iterations")) {
+                fIterations= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-warmup")) {
+                fWarmup= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-seed")) {
+                fSeed= Long.parseLong(args[++i]);
+            } else if (args[i].equals("-out")) {
+                fOutFile= args[++i];
+            }
+        }
+    }
+}
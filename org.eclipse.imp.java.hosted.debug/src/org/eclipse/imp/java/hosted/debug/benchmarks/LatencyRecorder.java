@@ -0,0 +1,161 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.debug.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Records the latency of each invocation of a benchmarked operation, along with the
+ * number of bytes allocated by the benchmarking thread while the operation ran (where
+ * the VM supports per-thread allocation accounting).
+ */
+public class LatencyRecorder {
+    private static final ThreadMXBean sThreadBean= ManagementFactory.getThreadMXBean();
+
+    private static final Method sAllocatedBytesMethod= findAllocatedBytesMethod();
+
+    private final String fName;
+
+    private long[] fSamples= new long[1024];
+
+    private int fCount;
+
+    private long fAllocStart= -1;
+
+    private long fAllocated;
+
+    public LatencyRecorder(String name) {
+        fName= name;
+    }
+
+    public String getName() {
+        return fName;
+    }
+
+    /**
+     * Starts accounting for allocations; call before the first timed invocation.
+     */
+    public void startAllocations() {
+        fAllocStart= allocatedBytes();
+    }
+
+    /**
+     * Stops accounting for allocations; call after the last timed invocation.
+     */
+    public void stopAllocations() {
+        long end= allocatedBytes();
+        if (fAllocStart >= 0 && end >= 0) {
+            fAllocated += end - fAllocStart;
+        }
+        fAllocStart= -1;
+    }
+
+    public void add(long nanos) {
+        if (fCount == fSamples.length) {
+            long[] newSamples= new long[fSamples.length * 2];
+            System.arraycopy(fSamples, 0, newSamples, 0, fCount);
+            fSamples= newSamples;
+        }
+        fSamples[fCount++]= nanos;
+    }
+
+    /**
+     * Adds the samples and allocations recorded by the given recorder to this one.
+     */
+    public void addAll(LatencyRecorder other) {
+        for(int i= 0; i < other.fCount; i++) {
+            add(other.fSamples[i]);
+        }
+        fAllocated += other.fAllocated;
+    }
+
+    public int getCount() {
+        return fCount;
+    }
+
+    /**
+     * @param p the percentile, between 0 and 100
+     * @return the latency at the given percentile, in nanoseconds
+     */
+    public long percentile(double p) {
+        if (fCount == 0) {
+            return 0;
+        }
+        long[] sorted= new long[fCount];
+        System.arraycopy(fSamples, 0, sorted, 0, fCount);
+        Arrays.sort(sorted);
+        int idx= (int) Math.ceil(p / 100.0 * fCount) - 1;
+        return sorted[Math.max(0, Math.min(fCount - 1, idx))];
+    }
+
+    public long total() {
+        long sum= 0;
+        for(int i= 0; i < fCount; i++) {
+            sum += fSamples[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return the average number of bytes allocated per invocation, or -1 if unknown
+     */
+    public long allocatedPerOp() {
+        if (sAllocatedBytesMethod == null || fCount == 0) {
+            return -1;
+        }
+        return fAllocated / fCount;
+    }
+
+    public static String header() {
+        return "operation,count,total_ms,p50_us,p90_us,p99_us,max_us,bytes_per_op";
+    }
+
+    /**
+     * @return a CSV row of the form described by header()
+     */
+    public String toString() {
+        return fName + "," + fCount + "," + (total() / 1000000) + "," + (percentile(50) / 1000) + "," +
+            (percentile(90) / 1000) + "," + (percentile(99) / 1000) + "," + (percentile(100) / 1000) + "," + allocatedPerOp();
+    }
+
+    private static long allocatedBytes() {
+        if (sAllocatedBytesMethod == null) {
+            return -1;
+        }
+        try {
+            return ((Long) sAllocatedBytesMethod.invoke(sThreadBean, Long.valueOf(Thread.currentThread().getId()))).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Per-thread allocation accounting is a HotSpot extension (com.sun.management.ThreadMXBean),
+     * so look it up reflectively.
+     */
+    private static Method findAllocatedBytesMethod() {
+        try {
+            Class<?> extClass= Class.forName("com.sun.management.ThreadMXBean");
+            if (!extClass.isInstance(sThreadBean)) {
+                return null;
+            }
+            Method m= extClass.getMethod("getThreadAllocatedBytes", new Class[] { long.class });
+            m.invoke(sThreadBean, Long.valueOf(Thread.currentThread().getId()));
+            return m;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
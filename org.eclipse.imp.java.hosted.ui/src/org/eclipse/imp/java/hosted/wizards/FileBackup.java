@@ -0,0 +1,139 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.wizards;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * A backup copy of a (typically small) file, such as a .project or .classpath file that
+ * the new project wizard may overwrite. Files up to MAX_IN_MEMORY_SIZE bytes are kept in
+ * memory; larger ones are copied to a temporary file, using FileChannel.transferTo()
+ * when the file store is on the local file system. The temporary file, if any, is
+ * deleted by dispose(), which clients must call once the backup is no longer needed.
+ */
+class FileBackup {
+    private static final int MAX_IN_MEMORY_SIZE= 64 * 1024;
+
+    private byte[] fContents;
+
+    private File fTempFile;
+
+    private FileBackup() { }
+
+    /**
+     * @param name a short name for the backup, used as a prefix for the temporary file
+     */
+    public static FileBackup create(IFileStore source, String name) throws IOException, CoreException {
+        FileBackup backup= new FileBackup();
+        File localSource= source.toLocalFile(EFS.NONE, null);
+        long length= source.fetchInfo().getLength();
+
+        if (length >= 0 && length <= MAX_IN_MEMORY_SIZE) {
+            ByteArrayOutputStream bos= new ByteArrayOutputStream((int) length);
+            copy(source.openInputStream(EFS.NONE, null), bos);
+            backup.fContents= bos.toByteArray();
+        } else {
+            backup.fTempFile= File.createTempFile("eclipse-" + name, ".bak"); //$NON-NLS-1$//$NON-NLS-2$
+            backup.fTempFile.deleteOnExit(); // in case the backup is never disposed
+            try {
+                if (localSource != null) {
+                    transfer(localSource, backup.fTempFile);
+                } else {
+                    copy(source.openInputStream(EFS.NONE, null), new FileOutputStream(backup.fTempFile));
+                }
+            } catch (IOException e) {
+                backup.dispose();
+                throw e;
+            }
+        }
+        return backup;
+    }
+
+    /**
+     * Writes the backed-up contents to the given file store.
+     */
+    public void restore(IFileStore target, IProgressMonitor monitor) throws IOException, CoreException {
+        File localTarget= target.toLocalFile(EFS.NONE, null);
+
+        if (fContents != null) {
+            OutputStream os= (localTarget != null) ? new FileOutputStream(localTarget) : target.openOutputStream(EFS.NONE, monitor);
+            try {
+                os.write(fContents);
+            } finally {
+                os.close();
+            }
+        } else if (localTarget != null) {
+            transfer(fTempFile, localTarget);
+        } else {
+            copy(new FileInputStream(fTempFile), target.openOutputStream(EFS.NONE, monitor));
+        }
+    }
+
+    /**
+     * Releases the backup, deleting its temporary file, if any.
+     */
+    public void dispose() {
+        fContents= null;
+        if (fTempFile != null) {
+            fTempFile.delete();
+            fTempFile= null;
+        }
+    }
+
+    private static void transfer(File source, File target) throws IOException {
+        FileChannel in= new FileInputStream(source).getChannel();
+        try {
+            FileChannel out= new FileOutputStream(target).getChannel();
+            try {
+                long size= in.size();
+                long pos= 0;
+
+                while (pos < size) {
+                    pos+= in.transferTo(pos, size - pos, out);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void copy(InputStream is, OutputStream os) throws IOException {
+        try {
+            byte[] buffer= new byte[8192];
+            int bytesRead;
+
+            while ((bytesRead= is.read(buffer)) != -1) {
+                os.write(buffer, 0, bytesRead);
+            }
+        } finally {
+            try {
+                is.close();
+            } finally {
+                os.close();
+            }
+        }
+    }
+}
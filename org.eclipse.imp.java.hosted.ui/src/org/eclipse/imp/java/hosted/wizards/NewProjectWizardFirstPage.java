@@ -20,9 +20,12 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.imp.java.hosted.wizards.fields.DialogField;
 import org.eclipse.imp.java.hosted.wizards.fields.IDialogFieldListener;
 import org.eclipse.imp.java.hosted.wizards.fields.IStringButtonAdapter;
@@ -42,6 +45,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.DirectoryDialog;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Link;
 import org.eclipse.ui.dialogs.PreferencesUtil;
@@ -346,77 +350,151 @@ public class NewProjectWizardFirstPage extends WizardPage {
 
     /**
      * Validate this page and show appropriate warnings and error NewWizardMessages.
+     * Validation reads the file system (and so can block on slow network mounts), so it
+     * is debounced and run in a background job; only the result of the most recent
+     * request is posted back to the page.
      */
     public final class Validator implements Observer {
+        private static final long DELAY= 250; // ms
+
+        private ValidationJob fJob;
+
+        private int fGeneration;
+
         public void update(Observable o, Object arg) {
-            final IWorkspace workspace= ResourcesPlugin.getWorkspace();
             final String name= fNameGroup.getName();
 
             // check wether the project name field is empty
             if (name.length() == 0) { //$NON-NLS-1$
+                cancel();
                 setErrorMessage(null);
                 setMessage("Enter a project name");
                 setPageComplete(false);
                 return;
             }
+            cancel();
+            setPageComplete(false); // until the pending validation completes
+            fJob= new ValidationJob(++fGeneration, name, fLocationGroup.getLocation().toOSString(), fLocationGroup.isInWorkspace(), getShell().getDisplay());
+            fJob.schedule(DELAY);
+        }
 
-            // check whether the project name is valid
-            final IStatus nameStatus= workspace.validateName(name, IResource.PROJECT);
-            if (!nameStatus.isOK()) {
-                setErrorMessage(nameStatus.getMessage());
-                setPageComplete(false);
-                return;
+        /**
+         * Cancels any pending validation, whose result would now be stale.
+         */
+        public void cancel() {
+            if (fJob != null) {
+                fJob.cancel();
+                fJob= null;
             }
+        }
 
-            // check whether project already exists
-            final IProject handle= getProjectHandle();
-            if (handle.exists()) {
-                setErrorMessage("Project already exists");
-                setPageComplete(false);
+        private void post(final ValidationJob job, final Display display) {
+            if (display.isDisposed()) {
                 return;
             }
+            display.asyncExec(new Runnable() {
+                public void run() {
+                    if (job.fGeneration != fGeneration || getControl() == null || getControl().isDisposed()) {
+                        return; // superseded by a later request
+                    }
+                    setErrorMessage(job.fErrorMessage);
+                    setMessage(job.fMessage);
+                    setPageComplete(job.fComplete);
+                }
+            });
+        }
 
-            final String location= fLocationGroup.getLocation().toOSString();
+        /**
+         * Validates a snapshot of the page's fields, taken on the UI thread.
+         */
+        private final class ValidationJob extends Job {
+            private final int fGeneration;
 
-            // check whether location is empty
-            if (location.length() == 0) {
-                setErrorMessage(null);
-                setMessage("Enter location");
-                setPageComplete(false);
-                return;
-            }
+            private final String fName;
 
-            // check whether the location is a syntactically correct path
-            if (!Path.EMPTY.isValidPath(location)) { //$NON-NLS-1$
-                setErrorMessage("Invalid directory");
-                setPageComplete(false);
-                return;
+            private final String fLocation;
+
+            private final boolean fInWorkspace;
+
+            private final Display fDisplay;
+
+            private String fErrorMessage;
+
+            private String fMessage;
+
+            private boolean fComplete;
+
+            public ValidationJob(int generation, String name, String location, boolean inWorkspace, Display display) {
+                super("Validating project");
+                fGeneration= generation;
+                fName= name;
+                fLocation= location;
+                fInWorkspace= inWorkspace;
+                fDisplay= display;
+                setSystem(true);
             }
 
-            // check whether the location has the workspace as prefix
-            IPath projectPath= Path.fromOSString(location);
-            if (!fLocationGroup.isInWorkspace() && Platform.getLocation().isPrefixOf(projectPath)) {
-                setErrorMessage("Cannot create in workspace");
-                setPageComplete(false);
-                return;
+            protected IStatus run(IProgressMonitor monitor) {
+                validate(monitor);
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                post(this, fDisplay);
+                return Status.OK_STATUS;
             }
 
-            // If we do not place the contents in the workspace validate the
-            // location.
-            if (!fLocationGroup.isInWorkspace()) {
-                final IStatus locationStatus= workspace.validateProjectLocation(handle, projectPath);
-                if (!locationStatus.isOK()) {
-                    setErrorMessage(locationStatus.getMessage());
-                    setPageComplete(false);
+            private void validate(IProgressMonitor monitor) {
+                final IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+                // check whether the project name is valid
+                final IStatus nameStatus= workspace.validateName(fName, IResource.PROJECT);
+                if (!nameStatus.isOK()) {
+                    fErrorMessage= nameStatus.getMessage();
                     return;
                 }
-            }
 
-            setPageComplete(true);
+                // check whether project already exists
+                final IProject handle= workspace.getRoot().getProject(fName);
+                if (handle.exists()) {
+                    fErrorMessage= "Project already exists";
+                    return;
+                }
 
-    	    setErrorMessage(null);
-    	    setMessage(null);
-    	}
+                // check whether location is empty
+                if (fLocation.length() == 0) {
+                    fMessage= "Enter location";
+                    return;
+                }
+
+                // check whether the location is a syntactically correct path
+                if (!Path.EMPTY.isValidPath(fLocation)) { //$NON-NLS-1$
+                    fErrorMessage= "Invalid directory";
+                    return;
+                }
+
+                // check whether the location has the workspace as prefix
+                IPath projectPath= Path.fromOSString(fLocation);
+                if (!fInWorkspace && Platform.getLocation().isPrefixOf(projectPath)) {
+                    fErrorMessage= "Cannot create in workspace";
+                    return;
+                }
+                if (monitor.isCanceled()) {
+                    return;
+                }
+
+                // If we do not place the contents in the workspace validate the
+                // location.
+                if (!fInWorkspace) {
+                    final IStatus locationStatus= workspace.validateProjectLocation(handle, projectPath);
+                    if (!locationStatus.isOK()) {
+                        fErrorMessage= locationStatus.getMessage();
+                        return;
+                    }
+                }
+
+                fComplete= true;
+            }
+        }
     }
 
     /**
@@ -497,6 +575,13 @@ public class NewProjectWizardFirstPage extends WizardPage {
     	Dialog.applyDialogFont(composite);
     }
 
+    public void dispose() {
+        if (fValidator != null) {
+            fValidator.cancel();
+        }
+        super.dispose();
+    }
+
     /**
      * Initialize a grid layout with the default Dialog settings.
      */
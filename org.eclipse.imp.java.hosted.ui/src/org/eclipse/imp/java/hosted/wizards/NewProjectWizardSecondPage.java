@@ -11,55 +11,44 @@
 
 package org.eclipse.imp.java.hosted.wizards;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.filesystem.URIUtil;
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IResourceStatus;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
-import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.imp.builder.ProjectNatureBase;
-import org.eclipse.imp.runtime.RuntimePlugin;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.imp.java.hosted.projects.BuildDeferral;
+import org.eclipse.imp.java.hosted.projects.ILanguageNature;
+import org.eclipse.imp.java.hosted.projects.JavaHostedProjectCreator;
+import org.eclipse.imp.java.hosted.projects.ProjectCreationMetrics;
+import org.eclipse.imp.java.hosted.projects.ProjectCreationRequest;
+import org.eclipse.imp.java.hosted.projects.ProjectCreationResult;
+import org.eclipse.imp.java.hosted.projects.ProjectLayout;
 import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.internal.ui.wizards.ClassPathDetector;
-import org.eclipse.jdt.launching.IVMInstall;
-import org.eclipse.jdt.launching.IVMInstall2;
-import org.eclipse.jdt.launching.IVMInstallType;
-import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.wizards.JavaCapabilityConfigurationPage;
@@ -87,10 +76,14 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
 
     private boolean fKeepContent;
 
-    private File fDotProjectBackup;
-    private File fDotClasspathBackup;
+    private FileBackup fDotProjectBackup;
+    private FileBackup fDotClasspathBackup;
 
-    private Boolean fIsAutobuild= null;
+    private final JavaHostedProjectCreator fCreator= new JavaHostedProjectCreator();
+
+    private ProjectCreationRequest fDeferredRequest; // non-null while a deferred project is modeled, but not yet created
+
+    private ProjectCreationResult fCreationResult; // accumulates the phase timings of the current project
 
     /**
      * @return the IProjectNature to add to the newly-created project
@@ -127,6 +120,19 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
         return Collections.emptyList();
     }
 
+    /**
+     * Sub-classes may override to return true, in which case the project is only modeled
+     * in memory while the wizard is open, and is created on disk by performFinish(),
+     * rather than being created each time this page is shown and deleted again when the
+     * user goes back. This avoids repeated create/delete cycles (and the backup and
+     * restore of .project/.classpath) on large existing source trees; in return, classpath
+     * detection for existing sources happens only on finish, so this page initially shows
+     * the default layout in that case.
+     */
+    protected boolean deferProjectCreation() {
+        return false;
+    }
+
     public NewProjectWizardSecondPage(NewProjectWizardFirstPage firstPage) {
     	super();
     	fFirstPage= firstPage;
@@ -140,34 +146,57 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
             //monitor.beginTask(NewWizardMessages.JavaProjectWizardSecondPage_operation_create, 3);  // <= 3.3
             //monitor.beginTask(NewWizardMessages.NewJavaProjectWizardPageTwo_operation_create, 3);	 // >= 3.4
             monitor.beginTask("Creating project...", 3);
-            if (fCurrProject == null) {
-                updateProject(new SubProgressMonitor(monitor, 1));
-            }
-            configureJavaProject(new SubProgressMonitor(monitor, 2));
-            String compliance= fFirstPage.getJRECompliance();
-            if (compliance != null) {
-                IJavaProject project= JavaCore.create(fCurrProject);
-                Map<String, String> options= project.getOptions(false);
-
-                JavaCore.setComplianceOptions(compliance, options);
-                project.setOptions(options);
-            }
+            // Finish the project in one operation, so that no build starts before it's complete
+            BuildDeferral.getInstance().run(new IWorkspaceRunnable() {
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    try {
+                        finishProject(monitor);
+                    } catch (InterruptedException e) {
+                        throw new OperationCanceledException();
+                    }
+                }
+            }, new SubProgressMonitor(monitor, 3));
+            ProjectCreationMetrics.getInstance().increment(ProjectCreationMetrics.COUNTER_PROJECTS_CREATED);
+        } catch (OperationCanceledException e) {
+            throw new InterruptedException();
         } finally {
             monitor.done();
+            IProject project= fCurrProject;
             fCurrProject= null;
-            if (fIsAutobuild != null) {
-                enableAutoBuild(fIsAutobuild.booleanValue());
-                fIsAutobuild= null;
+            fCreationResult= null;
+            fDeferredRequest= null;
+            disposeBackups();
+            if (project != null) {
+                BuildDeferral.getInstance().release(project);
             }
         }
     }
 
+    private void finishProject(IProgressMonitor monitor) throws CoreException, InterruptedException {
+        monitor.beginTask("", 3); //$NON-NLS-1$
+        try {
+            if (fCurrProject == null && fDeferredRequest != null) {
+                materializeProject(new SubProgressMonitor(monitor, 3)); // also sets the compliance options
+            } else {
+                if (fCurrProject == null) {
+                    updateProject(new SubProgressMonitor(monitor, 1));
+                }
+                timedConfigureJavaProject(new SubProgressMonitor(monitor, 2));
+                fCreator.applyComplianceOptions(getCreationResult(), fFirstPage.getJRECompliance());
+            }
+        } finally {
+            monitor.done();
+        }
+    }
+
     /**
      * Set the autobuild to the value of the parameter and
      * return the old one.
      * 
      * @param state the value to be set for autobuilding.
      * @return the old value of the autobuild state
+     * @deprecated this changes (and persists) the autobuild setting of the whole workspace;
+     * use BuildDeferral to hold back the builds of just the projects being created
      */
     public static boolean enableAutoBuild(boolean state) throws CoreException {
         IWorkspace workspace= ResourcesPlugin.getWorkspace();
@@ -184,7 +213,9 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
      * @see org.eclipse.jface.dialogs.IDialogPage#setVisible(boolean)
      */
     public void setVisible(boolean visible) {
-        if (visible) {
+        if (visible && deferProjectCreation()) {
+            modelNewProject();
+        } else if (visible) {
             IStatus status= changeToNewProject();
             if (status != null && !status.isOK()) {
                 ErrorDialog.openError(getShell(),
@@ -192,6 +223,7 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
                         "New Java Project", null, status);
             }
         } else {
+            fDeferredRequest= null;
             removeProject();
         }
         super.setVisible(visible);
@@ -209,10 +241,14 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
 
             public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
                 try {
-                    if (fIsAutobuild == null) {
-                        fIsAutobuild= Boolean.valueOf(enableAutoBuild(false));
+                    try {
+                        infoStatus= updateProject(monitor);
+                    } finally {
+                        // Don't build the new project while the user may still change it
+                        if (fCurrProject != null && fCurrProject.isOpen()) {
+                            BuildDeferral.getInstance().hold(fCurrProject);
+                        }
                     }
-                    infoStatus= updateProject(monitor);
                 } catch (CoreException e) {
                     throw new InvocationTargetException(e);
                 } catch (OperationCanceledException e) {
@@ -224,20 +260,24 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
         }
         UpdateRunnable op= new UpdateRunnable();
         try {
-            getContainer().run(true, false, new WorkspaceModifyDelegatingOperation(op));
+            getContainer().run(true, true, new WorkspaceModifyDelegatingOperation(op));
+            setPageComplete(true);
             return op.infoStatus;
         } catch (InvocationTargetException e) {
             final String title= "New Java Project"; //NewWizardMessages.JavaProjectWizardSecondPage_error_title; 
             final String message= "An error occurred while creating project. Check log for details."; //NewWizardMessages.JavaProjectWizardSecondPage_error_message; 
             perform(e, getShell(), title, message);
         } catch (InterruptedException e) {
-            // cancel pressed
+            // cancel pressed: don't leave a half-created (and held) project behind, and
+            // don't let Finish configure it with an uninitialized capability page
+            removeProject();
+            setPageComplete(false);
         }
         return null;
     }
 
     protected void perform(CoreException e, Shell shell, String title, String message) {
-        RuntimePlugin.getInstance().logException(message, e);
+        Activator.logException(message, e);
         IStatus status= e.getStatus();
         if (status != null) {
             ErrorDialog.openError(shell, title, message, status);
@@ -251,7 +291,7 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
         if (target instanceof CoreException) {
             perform((CoreException)target, shell, title, message);
         } else {
-            RuntimePlugin.getInstance().logException(message, e);
+            Activator.logException(message, e);
             if (e.getMessage() != null && e.getMessage().length() > 0) {
                 displayMessageDialog(e, e.getMessage(), shell, title, message);
             } else {
@@ -272,9 +312,90 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
         MessageDialog.openError(shell, title, msg.toString());          
     }   
 
-    final IStatus updateProject(IProgressMonitor monitor) throws CoreException, InterruptedException {
-        IStatus result= new Status(IStatus.OK, RuntimePlugin.IMP_RUNTIME, "Ok");
+    /**
+     * Initializes this page from an in-memory model of the project specified on the first
+     * page, without creating anything on disk.
+     */
+    private void modelNewProject() {
+        IProject handle= fFirstPage.getProjectHandle();
+
+        try {
+            fCurrProjectLocation= getProjectLocationURI();
+        } catch (CoreException e) {
+            Activator.logException("Unable to determine the location of the new project", e);
+            fCurrProjectLocation= null;
+        }
+        fDeferredRequest= createRequest(handle);
+
+        ProjectCreationResult model= new ProjectCreationResult(handle);
+        fCreator.computeClasspathModel(model, fDeferredRequest);
+        init(JavaCore.create(handle), model.getOutputLocation(), model.getClasspath(), false);
+    }
+
+    /**
+     * Creates the project modeled by modelNewProject() on disk, with the classpath as
+     * edited on this page (or, for existing sources, as detected now), holding back its
+     * builds until performFinish() releases it. The compliance options are set before
+     * any nature (and so any builder) is added. If anything fails, or the monitor is
+     * cancelled, the half-created project is removed again, as when going back from
+     * this page.
+     */
+    private void materializeProject(IProgressMonitor monitor) throws CoreException, InterruptedException {
+        boolean succeeded= false;
+
+        monitor.beginTask("Initializing project...", 7);
+        try {
+            fCurrProject= fFirstPage.getProjectHandle();
+            fKeepContent= fFirstPage.getDetect();
+            rememberExistingFiles(JavaHostedProjectCreator.getRealLocation(fCurrProject, fCurrProjectLocation));
+            BuildDeferral.getInstance().hold(fCurrProject);
+
+            ProjectCreationResult result= fCreator.createProjectResource(fDeferredRequest, new SubProgressMonitor(monitor, 2));
 
+            fCreationResult= result;
+            if (fDeferredRequest.getLayout() == ProjectCreationRequest.Layout.DETECT) {
+                fCreator.computeClasspath(result, fDeferredRequest, new SubProgressMonitor(monitor, 2));
+                init(JavaCore.create(fCurrProject), result.getOutputLocation(), result.getClasspath(), false);
+            } else {
+                monitor.worked(2);
+            }
+            // Create the folder tree as edited on this page in one go, rather than one folder at a time
+            ProjectLayout.fromClasspath(fCurrProject, getRawClassPath(), getOutputLocation()).materialize(fCurrProject, new SubProgressMonitor(monitor, 1));
+            fCreator.applyComplianceOptions(result, fDeferredRequest.getCompliance());
+            timedConfigureJavaProject(new SubProgressMonitor(monitor, 2));
+            fCreator.addNatures(result, fDeferredRequest, null);
+            succeeded= true;
+        } finally {
+            if (!succeeded) {
+                discardProject();
+            }
+            monitor.done();
+        }
+    }
+
+    /**
+     * Removes the project whose creation failed, restoring any pre-existing .project and
+     * .classpath files, and logging rather than throwing any failure, so as not to hide
+     * the exception propagating from the caller's try block.
+     */
+    private void discardProject() {
+        if (fCurrProject == null) {
+            return;
+        }
+        if (!fCurrProject.exists()) {
+            BuildDeferral.getInstance().abandon(fCurrProject);
+            disposeBackups();
+            fCurrProject= null;
+            return;
+        }
+        try {
+            doRemoveProject(new NullProgressMonitor());
+        } catch (InvocationTargetException e) {
+            Activator.logException("Unable to remove the partially created project", e.getTargetException());
+        }
+    }
+
+    final IStatus updateProject(IProgressMonitor monitor) throws CoreException, InterruptedException {
         fCurrProject= fFirstPage.getProjectHandle();
         fCurrProjectLocation= getProjectLocationURI();
 
@@ -287,124 +408,85 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
                 throw new OperationCanceledException();
             }
 
-            URI realLocation= fCurrProjectLocation;
-            if (fCurrProjectLocation == null) { // inside workspace
-                try {
-                    URI rootLocation= ResourcesPlugin.getWorkspace().getRoot().getLocationURI();
-                    realLocation= new URI(rootLocation.getScheme(), null, Path.fromPortableString(rootLocation.getPath()).append(fCurrProject.getName())
-                            .toString(), null);
-                } catch (URISyntaxException e) {
-                    Assert.isTrue(false, "Can't happen"); //$NON-NLS-1$
-                }
-            }
-
-            rememberExistingFiles(realLocation);
+            rememberExistingFiles(JavaHostedProjectCreator.getRealLocation(fCurrProject, fCurrProjectLocation));
 
-            try {
-                createProject(fCurrProject, fCurrProjectLocation, new SubProgressMonitor(monitor, 2));
-            } catch (CoreException e) {
-                if (e.getStatus().getCode() == IResourceStatus.FAILED_READ_METADATA) {
-                    result= new Status(IStatus.INFO, RuntimePlugin.IMP_RUNTIME,
-                            MessageFormat.format("A problem occurred while creating the project from existing source:\n\n''{0}''\n\nThe corrupt project file will be replaced by a valid one.",
-                                            e.getLocalizedMessage()));
-
-                    deleteProjectFile(realLocation);
-                    if (fCurrProject.exists())
-                        fCurrProject.delete(true, null);
-
-                    createProject(fCurrProject, fCurrProjectLocation, null);
-                } else {
-                    throw e;
-                }
-            }
+            ProjectCreationRequest request= createRequest(fCurrProject);
+            ProjectCreationResult result= fCreator.createProjectResource(request, new SubProgressMonitor(monitor, 2));
 
-            IClasspathEntry[] entries= null;
-            IPath outputLocation= null;
+            fCreationResult= result;
+            fCreator.computeClasspath(result, request, new SubProgressMonitor(monitor, 2));
 
-            if (fFirstPage.getDetect()) {
-                if (!fCurrProject.getFile(FILENAME_CLASSPATH).exists()) {
-                    final ClassPathDetector detector= new ClassPathDetector(fCurrProject, new SubProgressMonitor(monitor, 2));
-                    entries= detector.getClasspath();
-                    outputLocation= detector.getOutputLocation();
-                } else {
-                    monitor.worked(2);
-                }
-            } else if (fFirstPage.isSrcBin()) {
-                IPreferenceStore store= PreferenceConstants.getPreferenceStore();
-                IPath srcPath= new Path(store.getString(PreferenceConstants.SRCBIN_SRCNAME));
-                IPath binPath= new Path(store.getString(PreferenceConstants.SRCBIN_BINNAME));
-
-                if (srcPath.segmentCount() > 0) {
-                    IFolder folder= fCurrProject.getFolder(srcPath);
-                    createFolder(folder, true, true, new SubProgressMonitor(monitor, 1));
-                } else {
-                    monitor.worked(1);
-                }
-
-                if (binPath.segmentCount() > 0 && !binPath.equals(srcPath)) {
-                    IFolder folder= fCurrProject.getFolder(binPath);
-                    createDerivedFolder(folder, true, true, new SubProgressMonitor(monitor, 1));
-                } else {
-                    monitor.worked(1);
-                }
-
-                final IPath projectPath= fCurrProject.getFullPath();
-
-                // configure the classpath entries, including the default jre library.
-                List<IClasspathEntry> cpEntries= new ArrayList<IClasspathEntry>();
-                cpEntries.add(JavaCore.newSourceEntry(projectPath.append(srcPath)));
-                cpEntries.addAll(Arrays.asList(getDefaultClasspathEntry()));
-                entries= (IClasspathEntry[]) cpEntries.toArray(new IClasspathEntry[cpEntries.size()]);
+            init(JavaCore.create(fCurrProject), result.getOutputLocation(), result.getClasspath(), false);
+            timedConfigureJavaProject(new SubProgressMonitor(monitor, 3)); // create the Java project to allow the use of the new source folder page
+            fCreator.addNatures(result, request, null);
+            return result.getStatus();
+        } finally {
+            monitor.done();
+        }
+    }
 
-                // configure the output location
-                outputLocation= projectPath.append(binPath);
-            } else {
-                IPath projectPath= fCurrProject.getFullPath();
-                List<IClasspathEntry> cpEntries= new ArrayList<IClasspathEntry>();
-                cpEntries.add(JavaCore.newSourceEntry(projectPath));
-                cpEntries.addAll(Arrays.asList(getDefaultClasspathEntry()));
-                entries= (IClasspathEntry[]) cpEntries.toArray(new IClasspathEntry[cpEntries.size()]);
+    /**
+     * Configures the Java project as specified on this page, recording the time taken.
+     */
+    private void timedConfigureJavaProject(IProgressMonitor monitor) throws CoreException, InterruptedException {
+        long start= System.nanoTime();
+        try {
+            configureJavaProject(monitor);
+        } finally {
+            getCreationResult().addPhaseTime(JavaHostedProjectCreator.PHASE_CONFIGURE_JAVA, System.nanoTime() - start);
+        }
+    }
 
-                outputLocation= projectPath;
-                monitor.worked(2);
-            }
-            if (monitor.isCanceled()) {
-                throw new OperationCanceledException();
-            }
+    private ProjectCreationResult getCreationResult() {
+        if (fCreationResult == null) {
+            fCreationResult= new ProjectCreationResult(fCurrProject);
+        }
+        return fCreationResult;
+    }
 
-            init(JavaCore.create(fCurrProject), outputLocation, entries, false);
-            configureJavaProject(new SubProgressMonitor(monitor, 3)); // create the Java project to allow the use of the new source folder page
-            getProjectNature().addToProject(fCurrProject);
-        } finally {
-            monitor.done();
+    /**
+     * @return a description of the project specified on the first page, for use by the
+     * headless project creation engine
+     */
+    private ProjectCreationRequest createRequest(IProject project) {
+        ProjectCreationRequest request= new ProjectCreationRequest(project.getName());
+
+        request.setLocationURI(fCurrProjectLocation);
+        if (fFirstPage.getDetect()) {
+            request.setLayout(ProjectCreationRequest.Layout.DETECT);
+        } else if (fFirstPage.isSrcBin()) {
+            IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+
+            request.setLayout(ProjectCreationRequest.Layout.SRC_BIN);
+            request.setSourceFolderName(store.getString(PreferenceConstants.SRCBIN_SRCNAME));
+            request.setOutputFolderName(store.getString(PreferenceConstants.SRCBIN_BINNAME));
+        } else {
+            request.setLayout(ProjectCreationRequest.Layout.PROJECT_ROOT);
+        }
+        request.setCompliance(fFirstPage.getJRECompliance());
+        request.setRuntimeEntries(createLanguageRuntimeEntries());
+        final ProjectNatureBase nature= getProjectNature();
+        if (nature != null) {
+            request.setNature(new ILanguageNature() {
+                public void addToProject(IProject project) {
+                    nature.addToProject(project);
+                }
+            });
         }
-        return result;
+        return request;
     }
 
     /**
      * Creates a folder and all parent folders if not existing.
      * Project must exist.
-     * <code> org.eclipse.ui.dialogs.ContainerGenerator</code> is too heavy
-     * (creates a runnable)
+     * @see JavaHostedProjectCreator#createFolder(IFolder, boolean, boolean, IProgressMonitor)
      */
     public static void createFolder(IFolder folder, boolean force, boolean local, IProgressMonitor monitor) throws CoreException {
-        if (!folder.exists()) {
-            IContainer parent= folder.getParent();
-            if (parent instanceof IFolder) {
-                createFolder((IFolder)parent, force, local, null);
-            }
-            folder.create(force, local, monitor);
-        }
+        JavaHostedProjectCreator.createFolder(folder, force, local, monitor);
     }
     
     public static void createDerivedFolder(IFolder folder, boolean force, boolean local, IProgressMonitor monitor) throws CoreException {
-        if (!folder.exists()) {
-            IContainer parent= folder.getParent();
-            if (parent instanceof IFolder) {
-                createDerivedFolder((IFolder)parent, force, local, null);
-            }
-            folder.create(force ? (IResource.FORCE | IResource.DERIVED) : IResource.DERIVED, local, monitor);
-        }
+        JavaHostedProjectCreator.createDerivedFolder(folder, force, local, monitor);
     }
 
     private URI getProjectLocationURI() throws CoreException {
@@ -414,19 +496,8 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
         return URIUtil.toURI(fFirstPage.getLocationPath());
     }
 
-    private void deleteProjectFile(URI projectLocation) throws CoreException {
-        IFileStore file= EFS.getStore(projectLocation);
-        if (file.fetchInfo().exists()) {
-            IFileStore projectFile= file.getChild(FILENAME_PROJECT);
-            if (projectFile.fetchInfo().exists()) {
-                projectFile.delete(EFS.NONE, null);
-            }
-        }
-    }
-
     private void rememberExistingFiles(URI projectLocation) throws CoreException {
-        fDotProjectBackup= null;
-        fDotClasspathBackup= null;
+        disposeBackups();
 
         IFileStore file= EFS.getStore(projectLocation);
         if (file.fetchInfo().exists()) {
@@ -448,7 +519,7 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
             IFileStore projectFile= EFS.getStore(projectLocation).getChild(FILENAME_PROJECT);
             projectFile.delete(EFS.NONE, new SubProgressMonitor(monitor, 1));
             if (fDotProjectBackup != null) {
-                copyFile(fDotProjectBackup, projectFile, new SubProgressMonitor(monitor, 1));
+                fDotProjectBackup.restore(projectFile, new SubProgressMonitor(monitor, 1));
             }
         } catch (IOException e) {
             IStatus status= new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, IStatus.ERROR,
@@ -460,21 +531,32 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
             IFileStore classpathFile= EFS.getStore(projectLocation).getChild(FILENAME_CLASSPATH);
             classpathFile.delete(EFS.NONE, new SubProgressMonitor(monitor, 1));
             if (fDotClasspathBackup != null) {
-                copyFile(fDotClasspathBackup, classpathFile, new SubProgressMonitor(monitor, 1));
+                fDotClasspathBackup.restore(classpathFile, new SubProgressMonitor(monitor, 1));
             }
         } catch (IOException e) {
             IStatus status= new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, IStatus.ERROR,
             //NewWizardMessages.JavaProjectWizardSecondPage_problem_restore_classpath,
                     "Problem while restoring backup for .classpath", e);
             throw new CoreException(status);
+        } finally {
+            disposeBackups();
         }
     }
 
-    private File createBackup(IFileStore source, String name) throws CoreException {
+    private void disposeBackups() {
+        if (fDotProjectBackup != null) {
+            fDotProjectBackup.dispose();
+            fDotProjectBackup= null;
+        }
+        if (fDotClasspathBackup != null) {
+            fDotClasspathBackup.dispose();
+            fDotClasspathBackup= null;
+        }
+    }
+
+    private FileBackup createBackup(IFileStore source, String name) throws CoreException {
         try {
-            File bak= File.createTempFile("eclipse-" + name, ".bak"); //$NON-NLS-1$//$NON-NLS-2$
-            copyFile(source, bak);
-            return bak;
+            return FileBackup.create(source, name);
         } catch (IOException e) {
             IStatus status= new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, IStatus.ERROR, MessageFormat.format(
             //NewWizardMessages.JavaProjectWizardSecondPage_problem_backup,
@@ -483,83 +565,6 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
         }
     }
 
-    private void copyFile(IFileStore source, File target) throws IOException, CoreException {
-        InputStream is= source.openInputStream(EFS.NONE, null);
-        FileOutputStream os= new FileOutputStream(target);
-        copyFile(is, os);
-    }
-
-    private void copyFile(File source, IFileStore target, IProgressMonitor monitor) throws IOException, CoreException {
-        FileInputStream is= new FileInputStream(source);
-        OutputStream os= target.openOutputStream(EFS.NONE, monitor);
-        copyFile(is, os);
-    }
-
-    private void copyFile(InputStream is, OutputStream os) throws IOException {
-        try {
-            byte[] buffer= new byte[8192];
-            while (true) {
-                int bytesRead= is.read(buffer);
-                if (bytesRead == -1)
-                    break;
-
-                os.write(buffer, 0, bytesRead);
-            }
-        } finally {
-            try {
-                is.close();
-            } finally {
-                os.close();
-            }
-        }
-    }
-
-    private IClasspathEntry[] getDefaultClasspathEntry() {
-        // First create a classpath entry for the language-specific runtime
-        List<IClasspathEntry> cpEntries= new ArrayList<IClasspathEntry>();
-        List<IClasspathEntry> langRuntimeCPEs= createLanguageRuntimeEntries();
-
-        if (langRuntimeCPEs != null) {
-            cpEntries.addAll(langRuntimeCPEs);
-        }
-
-        // Now try to find a compatible JRE
-        String compliance= fFirstPage.getJRECompliance();
-        IVMInstall inst= findMatchingJREInstall(compliance);
-        IPath jreContainerPath= new Path(JavaRuntime.JRE_CONTAINER);
-
-        if (inst != null) {
-            IPath newPath= jreContainerPath.append(inst.getVMInstallType().getId()).append(inst.getName());
-            IClasspathEntry jreCPE= JavaCore.newContainerEntry(newPath);
-            cpEntries.add(jreCPE);
-        } else {
-            // Didn't find a compatible JRE; use the default
-            IClasspathEntry[] defaultJRELibrary= PreferenceConstants.getDefaultJRELibrary();
-
-            for(int i=0; i < defaultJRELibrary.length; i++) {
-                cpEntries.add(defaultJRELibrary[i]);
-            }
-        }
-        return cpEntries.toArray(new IClasspathEntry[cpEntries.size()]);
-    }
-
-    private IVMInstall findMatchingJREInstall(String compliance) {
-        IVMInstallType vmInstallType= JavaRuntime.getVMInstallTypes()[0];
-        IVMInstall[] vmInstalls= vmInstallType.getVMInstalls();
-
-        for(int i= 0; i < vmInstalls.length; i++) {
-            if (vmInstalls[i] instanceof IVMInstall2) {
-                IVMInstall2 vmInstall2= (IVMInstall2) vmInstalls[i];
-                String vmVers= vmInstall2.getJavaVersion();
-
-                if (vmVers.startsWith(compliance)) {
-                    return vmInstalls[i];
-                }
-            }
-        }
-        return null;
-    }
-
     private void removeProject() {
         if (fCurrProject == null || !fCurrProject.exists()) {
             return;
@@ -600,8 +605,7 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
 
                 restoreExistingFiles(projLoc, new SubProgressMonitor(monitor, 1));
             } finally {
-                enableAutoBuild(fIsAutobuild.booleanValue()); // fIsAutobuild must be set
-                fIsAutobuild= null;
+                BuildDeferral.getInstance().abandon(fCurrProject);
             }
         } catch (CoreException e) {
             throw new InvocationTargetException(e);
@@ -612,6 +616,14 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
         }
     }
 
+    /* (non-Javadoc)
+     * @see org.eclipse.jface.dialogs.IDialogPage#dispose()
+     */
+    public void dispose() {
+        disposeBackups();
+        super.dispose();
+    }
+
     protected void openResource(final IFile resource) {
         Display.getDefault().asyncExec(new Runnable() {
             public void run() {
@@ -624,7 +636,7 @@ public abstract class NewProjectWizardSecondPage extends JavaCapabilityConfigura
                                 try {
                                     IDE.openEditor(activePage, resource, true);
                                 } catch (PartInitException e) {
-                                    RuntimePlugin.getInstance().getLog().log(new Status(IStatus.ERROR, RuntimePlugin.IMP_RUNTIME, "Error opening editor on newly-created source file", e));
+                                    Activator.logException("Error opening editor on newly-created source file", e);
                                 }
                             }
                         });
@@ -0,0 +1,268 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Records when the plug-in was activated, by whom, and how long the activation took,
+ * along with the number of calls to, and the cumulative time spent in, each public entry
+ * point of BuildPathUtils, ProjectUtils (in the UI fragment) and the debug package (in
+ * the debug fragment). Meant to find out which clients pull the plug-in in during IDE
+ * startup, and what it costs them.
+ * <p>
+ * Nothing is recorded unless the "org.eclipse.imp.java.hosted/debug/activation" tracing
+ * option is on, in which case the report is written to standard output and to the file
+ * "activationTrace.txt" in the plug-in's state location when the plug-in stops.
+ * <p>
+ * Entry points are instrumented as follows:
+ * <pre>
+ * long start= ActivationTrace.start();
+ * try {
+ *     ...
+ * } finally {
+ *     ActivationTrace.end("Foo.bar(int)", start);
+ * }
+ * </pre>
+ * Times are inclusive, so an entry point that calls another is charged for both.
+ */
+public class ActivationTrace {
+    public static final String TRACE_OPTION= Activator.PLUGIN_ID + "/debug/activation"; //$NON-NLS-1$
+
+    private static final String REPORT_FILE= "activationTrace.txt"; //$NON-NLS-1$
+
+    /**
+     * Prefixes of the classes whose frames are skipped when looking for the code that
+     * triggered activation: the framework's class loading and activation machinery, the
+     * JRE, and this plug-in's own activation code.
+     */
+    private static final String[] FRAMEWORK_PREFIXES= {
+        "java.", "javax.", "sun.", "com.sun.", "org.osgi.", "org.eclipse.osgi.", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+        "org.eclipse.core.runtime.internal.adaptor.", "org.eclipse.core.internal.runtime.", //$NON-NLS-1$ //$NON-NLS-2$
+        Activator.class.getName(), ActivationTrace.class.getName()
+    };
+
+    /**
+     * The number of frames following the trigger that are included in the report.
+     */
+    private static final int TRIGGER_CONTEXT_FRAMES= 8;
+
+    /**
+     * Cumulative timings of one entry point.
+     */
+    private static class EntryStats {
+        private final AtomicLong fCount= new AtomicLong();
+
+        private final AtomicLong fTotalNanos= new AtomicLong();
+
+        /**
+         * The time of the first call, relative to activation, or -1 if not yet set
+         */
+        private final AtomicLong fFirstCallNanos= new AtomicLong(-1);
+    }
+
+    private static volatile boolean sEnabled;
+
+    private static long sActivationTime;
+
+    private static long sActivationNanos;
+
+    private static long sStartDurationNanos;
+
+    private static String sActivationThread;
+
+    private static List<StackTraceElement> sTrigger= Collections.emptyList();
+
+    private static final ConcurrentMap<String, EntryStats> sEntries= new ConcurrentHashMap<String, EntryStats>();
+
+    private ActivationTrace() { }
+
+    /**
+     * Called at the very beginning of Activator.start(), while the stack still shows
+     * the class load that caused the activation.
+     */
+    static void activating() {
+        // Not plugin.isDebugging(): the bundle isn't set up yet, so that would always be false
+        sEnabled= Activator.isTracing(TRACE_OPTION);
+        if (!sEnabled) {
+            return;
+        }
+        sActivationTime= System.currentTimeMillis();
+        sActivationNanos= System.nanoTime();
+        sActivationThread= Thread.currentThread().getName();
+        sTrigger= findTrigger(new Throwable().getStackTrace());
+    }
+
+    /**
+     * Called at the end of Activator.start().
+     */
+    static void activated() {
+        if (sEnabled) {
+            sStartDurationNanos= System.nanoTime() - sActivationNanos;
+        }
+    }
+
+    /**
+     * Called from Activator.stop(); writes the report, if tracing is on.
+     */
+    static void deactivating(Activator plugin) {
+        if (!sEnabled) {
+            return;
+        }
+        String report= report();
+
+        System.out.println("[" + TRACE_OPTION + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+        System.out.print(report);
+
+        File file= plugin.getStateLocation().append(REPORT_FILE).toFile();
+        OutputStream os= null;
+        try {
+            os= new FileOutputStream(file);
+            os.write(report.getBytes("UTF-8")); //$NON-NLS-1$
+        } catch (IOException e) {
+            Activator.logException("Unable to write activation trace to " + file, e);
+        } finally {
+            if (os != null) {
+                try {
+                    os.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the activation tracing option is on
+     */
+    public static boolean isTracing() {
+        return sEnabled;
+    }
+
+    /**
+     * Marks the entry into an instrumented entry point.
+     * @return the token to pass to end(); 0 if tracing is off
+     */
+    public static long start() {
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Marks the exit from the named entry point, which was entered when start() returned
+     * the given token.
+     */
+    public static void end(String entryPoint, long start) {
+        if (start == 0) {
+            return;
+        }
+        long now= System.nanoTime();
+        EntryStats stats= sEntries.get(entryPoint);
+
+        if (stats == null) {
+            EntryStats newStats= new EntryStats();
+
+            stats= sEntries.putIfAbsent(entryPoint, newStats);
+            if (stats == null) {
+                stats= newStats;
+            }
+        }
+        stats.fCount.incrementAndGet();
+        stats.fTotalNanos.addAndGet(now - start);
+        stats.fFirstCallNanos.compareAndSet(-1, start - sActivationNanos);
+    }
+
+    /**
+     * @return the report, in the form of "key=value" lines, grouped into an activation
+     * section and one section per entry point; entry points are sorted by descending
+     * cumulative time
+     */
+    public static String report() {
+        StringBuilder sb= new StringBuilder();
+
+        sb.append("[activation]\n"); //$NON-NLS-1$
+        sb.append("time=").append(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date(sActivationTime))).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+        sb.append("thread=").append(sActivationThread).append('\n'); //$NON-NLS-1$
+        sb.append("startMicros=").append(sStartDurationNanos / 1000).append('\n'); //$NON-NLS-1$
+        sb.append("uptimeMicros=").append((System.nanoTime() - sActivationNanos) / 1000).append('\n'); //$NON-NLS-1$
+        if (sTrigger.isEmpty()) {
+            sb.append("trigger=unknown\n"); //$NON-NLS-1$
+        } else {
+            sb.append("trigger=").append(sTrigger.get(0)).append('\n'); //$NON-NLS-1$
+            for(int i= 1; i < sTrigger.size(); i++) {
+                sb.append("trigger.").append(i).append('=').append(sTrigger.get(i)).append('\n'); //$NON-NLS-1$
+            }
+        }
+
+        List<Map.Entry<String, EntryStats>> entries= new ArrayList<Map.Entry<String, EntryStats>>(sEntries.entrySet());
+
+        Collections.sort(entries, new Comparator<Map.Entry<String, EntryStats>>() {
+            public int compare(Map.Entry<String, EntryStats> e1, Map.Entry<String, EntryStats> e2) {
+                long t1= e1.getValue().fTotalNanos.get();
+                long t2= e2.getValue().fTotalNanos.get();
+
+                return (t1 < t2) ? 1 : ((t1 == t2) ? e1.getKey().compareTo(e2.getKey()) : -1);
+            }
+        });
+        for(Map.Entry<String, EntryStats> entry: entries) {
+            EntryStats stats= entry.getValue();
+            long count= stats.fCount.get();
+            long total= stats.fTotalNanos.get();
+
+            sb.append("\n[entry ").append(entry.getKey()).append("]\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("count=").append(count).append('\n'); //$NON-NLS-1$
+            sb.append("totalMicros=").append(total / 1000).append('\n'); //$NON-NLS-1$
+            sb.append("meanMicros=").append((count > 0) ? total / count / 1000 : 0).append('\n'); //$NON-NLS-1$
+            sb.append("firstCallMicros=").append(stats.fFirstCallNanos.get() / 1000).append('\n'); //$NON-NLS-1$
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the frame of the code whose class load caused the activation, followed by
+     * a few of its callers; empty if there is no such frame, e.g. on eager activation
+     */
+    private static List<StackTraceElement> findTrigger(StackTraceElement[] stack) {
+        List<StackTraceElement> result= new ArrayList<StackTraceElement>();
+
+        for(int i= 0; i < stack.length && result.size() <= TRIGGER_CONTEXT_FRAMES; i++) {
+            if (!result.isEmpty() || !isFrameworkFrame(stack[i])) {
+                result.add(stack[i]);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isFrameworkFrame(StackTraceElement frame) {
+        String className= frame.getClassName();
+
+        for(int i= 0; i < FRAMEWORK_PREFIXES.length; i++) {
+            if (className.startsWith(FRAMEWORK_PREFIXES[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,18 +1,37 @@
 package org.eclipse.imp.java.hosted;
 
-import org.eclipse.ui.plugin.AbstractUIPlugin;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Plugin;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.imp.java.hosted.projects.ComplianceOptionsCache;
 import org.osgi.framework.BundleContext;
 
 /**
- * The activator class controls the plug-in life cycle
+ * The activator class controls the plug-in life cycle. The bundle itself is headless,
+ * and doesn't require org.eclipse.imp.runtime: the debug support is in the
+ * org.eclipse.imp.java.hosted.debug fragment, and the wizards and ProjectUtils (which
+ * depends on the IMP model) are in the org.eclipse.imp.java.hosted.ui fragment. All of
+ * them log through this class rather than through RuntimePlugin, and the debug support
+ * registers its own cleanup via addStopHook(), so that starting and stopping the
+ * plug-in loads neither fragment.
  */
-public class Activator extends AbstractUIPlugin {
+public class Activator extends Plugin {
 
 	// The plug-in ID
 	public static final String PLUGIN_ID = "org.eclipse.imp.java.hosted";
 
+	// The option that turns on general debugging for the plug-in
+	public static final String DEBUG_OPTION = PLUGIN_ID + "/debug"; //$NON-NLS-1$
+
 	// The shared instance
 	private static Activator plugin;
+
+	// Cleanup registered by the optional parts of the plug-in, run in reverse order on stop
+	private static final List<Runnable> sStopHooks = new ArrayList<Runnable>();
 	
 	/**
 	 * The constructor
@@ -22,18 +41,25 @@ public class Activator extends AbstractUIPlugin {
 
 	/*
 	 * (non-Javadoc)
-	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#start(org.osgi.framework.BundleContext)
+	 * @see org.eclipse.core.runtime.Plugin#start(org.osgi.framework.BundleContext)
 	 */
 	public void start(BundleContext context) throws Exception {
+		ActivationTrace.activating();
 		super.start(context);
 		plugin = this;
+		ActivationTrace.activated();
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
+	 * @see org.eclipse.core.runtime.Plugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		ActivationTrace.deactivating(this);
+		runStopHooks();
+		TypeNameResolver.shutdown();
+		JREInstallIndex.shutdown();
+		ComplianceOptionsCache.shutdown();
 		plugin = null;
 		super.stop(context);
 	}
@@ -47,4 +73,57 @@ public class Activator extends AbstractUIPlugin {
 		return plugin;
 	}
 
+	/**
+	 * Registers the given cleanup to be run when the plug-in stops. Lets the debug
+	 * support clean up after itself without stop() having to load its classes.
+	 */
+	public static void addStopHook(Runnable hook) {
+		synchronized (sStopHooks) {
+			sStopHooks.add(hook);
+		}
+	}
+
+	private static void runStopHooks() {
+		List<Runnable> hooks;
+
+		synchronized (sStopHooks) {
+			hooks = new ArrayList<Runnable>(sStopHooks);
+			sStopHooks.clear();
+		}
+		for (int i = hooks.size() - 1; i >= 0; i--) {
+			try {
+				hooks.get(i).run();
+			} catch (RuntimeException e) {
+				logException("Error while stopping " + PLUGIN_ID, e);
+			}
+		}
+	}
+
+	/**
+	 * @return true if general debugging and the given tracing option of this plug-in are
+	 * both on. Reads the debug options directly rather than via isDebugging(), so that
+	 * the answer is right even before the plug-in has been started.
+	 */
+	public static boolean isTracing(String option) {
+		return "true".equalsIgnoreCase(Platform.getDebugOption(DEBUG_OPTION)) //$NON-NLS-1$
+			&& "true".equalsIgnoreCase(Platform.getDebugOption(option)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Logs the given error to this plug-in's log. Falls back to standard error if the
+	 * plug-in isn't active.
+	 */
+	public static void logException(String msg, Throwable t) {
+		Activator activator = plugin;
+
+		if (activator != null) {
+			activator.getLog().log(new Status(IStatus.ERROR, PLUGIN_ID, 0, msg, t));
+		} else {
+			System.err.println(msg);
+			if (t != null) {
+				t.printStackTrace();
+			}
+		}
+	}
+
 }
@@ -32,7 +32,12 @@ public class BuildPathUtils {
 	 * @throws JavaModelException 
 	 */
 	public static String getBareName(IFile file, IJavaProject project) throws JavaModelException{
-		return getBareName(file.getFullPath(), project);
+		long start= ActivationTrace.start();
+		try {
+			return getBareName(file.getFullPath(), project);
+		} finally {
+			ActivationTrace.end("BuildPathUtils.getBareName(IFile,IJavaProject)", start);
+		}
 	}
 	
 	
@@ -44,7 +49,12 @@ public class BuildPathUtils {
 	 * @throws JavaModelException 
 	 */
 	public static String getBareName(String path, IJavaProject project) throws JavaModelException{
-		return getBareName(new Path(path), project);
+		long start= ActivationTrace.start();
+		try {
+			return getBareName(new Path(path), project);
+		} finally {
+			ActivationTrace.end("BuildPathUtils.getBareName(String,IJavaProject)", start);
+		}
 	}
 	
 	/**
@@ -55,12 +65,39 @@ public class BuildPathUtils {
 	 * @throws JavaModelException 
 	 */
 	public static String getBareName(IPath filePath, IJavaProject project) throws JavaModelException {
-		for(final IClasspathEntry cpEntry : project.getRawClasspath()) {
-			if (cpEntry.getEntryKind() == IClasspathEntry.CPE_SOURCE && cpEntry.getPath().isPrefixOf(filePath) && !BuildPathUtils.isExcluded(filePath, cpEntry)) {
+		long start= ActivationTrace.start();
+		try {
+			IClasspathEntry cpEntry= getSourceEntry(filePath, project);
+
+			if (cpEntry != null) {
 				return filePath.makeRelativeTo(cpEntry.getPath()).removeFileExtension().toOSString();
 			}
+			return null;
+		} finally {
+			ActivationTrace.end("BuildPathUtils.getBareName(IPath,IJavaProject)", start);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param filePath a workspace-relative path
+	 * @param project
+	 * @return the source classpath entry of the given project that contains filePath (and doesn't
+	 * exclude it), or null if there is none
+	 * @throws JavaModelException 
+	 */
+	public static IClasspathEntry getSourceEntry(IPath filePath, IJavaProject project) throws JavaModelException {
+		long start= ActivationTrace.start();
+		try {
+			for(final IClasspathEntry cpEntry : project.getRawClasspath()) {
+				if (cpEntry.getEntryKind() == IClasspathEntry.CPE_SOURCE && cpEntry.getPath().isPrefixOf(filePath) && !BuildPathUtils.isExcluded(filePath, cpEntry)) {
+					return cpEntry;
+				}
+			}
+			return null;
+		} finally {
+			ActivationTrace.end("BuildPathUtils.getSourceEntry(IPath,IJavaProject)", start);
 		}
-		return null;
 	}
 	
     /**
@@ -69,6 +106,15 @@ public class BuildPathUtils {
      * @return true if the given file is excluded from the given IClasspathEntry
      */
     public static boolean isExcluded(final IPath filePath, final IClasspathEntry srcEntry) {
+        long start= ActivationTrace.start();
+        try {
+            return isExcludedFrom(filePath, srcEntry);
+        } finally {
+            ActivationTrace.end("BuildPathUtils.isExcluded(IPath,IClasspathEntry)", start);
+        }
+    }
+
+    private static boolean isExcludedFrom(final IPath filePath, final IClasspathEntry srcEntry) {
         final IPath relFilePath= filePath.makeRelativeTo(srcEntry.getPath());
         final IPath[] inclusionPatterns= srcEntry.getInclusionPatterns();
         if (inclusionPatterns != null && inclusionPatterns.length != 0) {
@@ -100,6 +146,15 @@ public class BuildPathUtils {
      * @return true if the given file is excluded from the source path of the given project
      */
     public static boolean isExcluded(IPath filePath, final IJavaProject project) {
+        long start= ActivationTrace.start();
+        try {
+            return isExcludedFrom(filePath, project);
+        } finally {
+            ActivationTrace.end("BuildPathUtils.isExcluded(IPath,IJavaProject)", start);
+        }
+    }
+
+    private static boolean isExcludedFrom(IPath filePath, final IJavaProject project) {
         try {
             // --- Determine the classpath source entry that corresponds to file.
             if (project == null) {
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    agent (agent@local) - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.imp.java.hosted;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.IVMInstall2;
+import org.eclipse.jdt.launching.IVMInstallChangedListener;
+import org.eclipse.jdt.launching.IVMInstallType;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.jdt.launching.PropertyChangeEvent;
+
+/**
+ * An index from Java compliance level (e.g. "1.5") to the best matching JRE install,
+ * across all VM install types. The index is built once, on first use, since determining
+ * an install's Java version may require probing the JVM; it is rebuilt lazily whenever
+ * the set of installs (or the default install) changes.
+ * <p>
+ * For each compliance level, the workspace's default install is preferred if it matches;
+ * otherwise the matching install with the highest version wins.
+ */
+public class JREInstallIndex implements IVMInstallChangedListener {
+    private static JREInstallIndex sInstance;
+
+    private Map<String, IVMInstall> fInstalls;
+
+    private JREInstallIndex() {
+        JavaRuntime.addVMInstallChangedListener(this);
+    }
+
+    public static synchronized JREInstallIndex getInstance() {
+        if (sInstance == null) {
+            sInstance= new JREInstallIndex();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Removes the index's listener, if it was ever created. Called when the plugin stops.
+     */
+    public static synchronized void shutdown() {
+        if (sInstance != null) {
+            JavaRuntime.removeVMInstallChangedListener(sInstance);
+            sInstance= null;
+        }
+    }
+
+    /**
+     * @param compliance a compliance level, e.g. JavaCore.VERSION_1_5
+     * @return the best JRE install for the given compliance level, or null if there is none
+     */
+    public synchronized IVMInstall findInstall(String compliance) {
+        if (compliance == null) {
+            return null;
+        }
+        if (fInstalls == null) {
+            build();
+        }
+        return fInstalls.get(complianceOf(compliance));
+    }
+
+    /**
+     * @return the compliance level of the given Java version, i.e. its first two components
+     * for versions of the form "1.x", and its first component otherwise; e.g. "1.5.0_22" -> "1.5",
+     * "11.0.2" -> "11"
+     */
+    public static String complianceOf(String version) {
+        int dot= version.indexOf('.');
+
+        if (dot < 0) {
+            return version;
+        }
+        if (!version.substring(0, dot).equals("1")) {
+            return version.substring(0, dot);
+        }
+        int end= dot + 1;
+        while (end < version.length() && Character.isDigit(version.charAt(end))) {
+            end++;
+        }
+        return version.substring(0, end);
+    }
+
+    private void build() {
+        Map<String, IVMInstall> installs= new HashMap<String, IVMInstall>();
+        Map<String, String> versions= new HashMap<String, String>(); // install ID -> Java version
+        IVMInstall defaultInstall= JavaRuntime.getDefaultVMInstall();
+        IVMInstallType[] types= JavaRuntime.getVMInstallTypes();
+
+        for(int i= 0; i < types.length; i++) {
+            IVMInstall[] vmInstalls= types[i].getVMInstalls();
+
+            for(int j= 0; j < vmInstalls.length; j++) {
+                if (!(vmInstalls[j] instanceof IVMInstall2)) {
+                    continue;
+                }
+                String version= ((IVMInstall2) vmInstalls[j]).getJavaVersion();
+                if (version == null) {
+                    continue;
+                }
+                String compliance= complianceOf(version);
+                IVMInstall current= installs.get(compliance);
+
+                if (current == null || (current != defaultInstall &&
+                    (vmInstalls[j] == defaultInstall || compareVersions(version, versions.get(current.getId())) > 0))) {
+                    installs.put(compliance, vmInstalls[j]);
+                }
+                versions.put(vmInstalls[j].getId(), version);
+            }
+        }
+        fInstalls= installs;
+    }
+
+    /**
+     * Compares dotted version strings numerically, component by component.
+     */
+    private static int compareVersions(String v1, String v2) {
+        String[] c1= v1.split("[._-]");
+        String[] c2= v2.split("[._-]");
+
+        for(int i= 0; i < Math.min(c1.length, c2.length); i++) {
+            int n1= parseLeadingInt(c1[i]);
+            int n2= parseLeadingInt(c2[i]);
+            if (n1 != n2) {
+                return n1 < n2 ? -1 : 1;
+            }
+        }
+        return c1.length - c2.length;
+    }
+
+    private static int parseLeadingInt(String s) {
+        int n= 0;
+        for(int i= 0; i < s.length() && Character.isDigit(s.charAt(i)); i++) {
+            n= n * 10 + (s.charAt(i) - '0');
+        }
+        return n;
+    }
+
+    private synchronized void invalidate() {
+        fInstalls= null;
+    }
+
+    public void defaultVMInstallChanged(IVMInstall previous, IVMInstall current) {
+        invalidate();
+    }
+
+    public void vmChanged(PropertyChangeEvent event) {
+        invalidate();
+    }
+
+    public void vmAdded(IVMInstall vm) {
+        invalidate();
+    }
+
+    public void vmRemoved(IVMInstall vm) {
+        invalidate();
+    }
+}
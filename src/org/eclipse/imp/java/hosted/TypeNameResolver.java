@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    agent (agent@local) - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.imp.java.hosted;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Computes the fully-qualified name of the Java type generated from a given source file
+ * of a Java-hosted language, based on the source classpath entry that contains the file
+ * (so that projects with multiple source folders are handled properly). Results are
+ * cached per file, and invalidated when the containing project's classpath changes or
+ * when the file (or one of its ancestors) is moved or deleted.
+ */
+public class TypeNameResolver {
+    private static TypeNameResolver sInstance;
+
+    private final Map<IFile, String> fTypeNames= new ConcurrentHashMap<IFile, String>();
+
+    private final IElementChangedListener fClasspathListener= new IElementChangedListener() {
+        public void elementChanged(ElementChangedEvent event) {
+            processJavaDelta(event.getDelta());
+        }
+    };
+
+    private final IResourceChangeListener fResourceListener= new IResourceChangeListener() {
+        public void resourceChanged(IResourceChangeEvent event) {
+            if (event.getDelta() != null) {
+                processResourceDelta(event.getDelta());
+            }
+        }
+    };
+
+    private TypeNameResolver() {
+        JavaCore.addElementChangedListener(fClasspathListener, ElementChangedEvent.POST_CHANGE);
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(fResourceListener, IResourceChangeEvent.POST_CHANGE);
+    }
+
+    public static synchronized TypeNameResolver getInstance() {
+        if (sInstance == null) {
+            sInstance= new TypeNameResolver();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Removes the resolver's listeners, if it was ever created. Called when the plugin stops.
+     */
+    public static synchronized void shutdown() {
+        if (sInstance != null) {
+            JavaCore.removeElementChangedListener(sInstance.fClasspathListener);
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(sInstance.fResourceListener);
+            sInstance= null;
+        }
+    }
+
+    /**
+     * @return the fully-qualified name of the Java type generated from the given source file,
+     * e.g. "a.b.Foo" for the file "src/a/b/Foo.x10" when "src" is a source folder
+     */
+    public String getTypeName(IFile srcFile) {
+        String typeName= fTypeNames.get(srcFile);
+
+        if (typeName == null) {
+            typeName= computeTypeName(srcFile);
+            fTypeNames.put(srcFile, typeName);
+        }
+        return typeName;
+    }
+
+    private String computeTypeName(IFile srcFile) {
+        IProject project= srcFile.getProject();
+        IJavaProject javaProj= JavaCore.create(project);
+        IPath filePath= srcFile.getFullPath();
+        IPath relPath= null;
+
+        try {
+            IClasspathEntry srcEntry= javaProj.exists() ? BuildPathUtils.getSourceEntry(filePath, javaProj) : null;
+
+            if (srcEntry != null) {
+                relPath= filePath.makeRelativeTo(srcEntry.getPath());
+            }
+        } catch (JavaModelException e) {
+            Activator.logException("Error determining path of file " + srcFile.getFullPath(), e);
+        }
+        if (relPath == null) {
+            // Not on the source path; treat the project itself as the source folder
+            relPath= srcFile.getProjectRelativePath();
+        }
+        relPath= relPath.removeFileExtension();
+
+        StringBuilder sb= new StringBuilder();
+        for(int i= 0; i < relPath.segmentCount(); i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(relPath.segment(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Discards the cached type names for all files in the given project.
+     */
+    public void invalidate(IProject project) {
+        for(Iterator<IFile> iter= fTypeNames.keySet().iterator(); iter.hasNext(); ) {
+            if (iter.next().getProject().equals(project)) {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards the cached type names for all files at or below the given workspace path.
+     */
+    private void invalidate(IPath path) {
+        for(Iterator<IFile> iter= fTypeNames.keySet().iterator(); iter.hasNext(); ) {
+            if (path.isPrefixOf(iter.next().getFullPath())) {
+                iter.remove();
+            }
+        }
+    }
+
+    private void processJavaDelta(IJavaElementDelta delta) {
+        IJavaElement elt= delta.getElement();
+
+        if (elt.getElementType() == IJavaElement.JAVA_PROJECT) {
+            int flags= delta.getFlags();
+            if (delta.getKind() != IJavaElementDelta.CHANGED ||
+                (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLOSED)) != 0) {
+                invalidate(((IJavaProject) elt).getProject());
+            }
+            return;
+        }
+        if (elt.getElementType() == IJavaElement.JAVA_MODEL) {
+            IJavaElementDelta[] children= delta.getAffectedChildren();
+            for(int i= 0; i < children.length; i++) {
+                processJavaDelta(children[i]);
+            }
+        }
+    }
+
+    private void processResourceDelta(IResourceDelta delta) {
+        if (fTypeNames.isEmpty()) {
+            return;
+        }
+        try {
+            delta.accept(new IResourceDeltaVisitor() {
+                public boolean visit(IResourceDelta delta) throws CoreException {
+                    if (delta.getKind() == IResourceDelta.REMOVED) {
+                        // Covers deletions as well as the "from" side of moves and renames
+                        invalidate(delta.getFullPath());
+                        return false;
+                    }
+                    if (delta.getResource().getType() == IResource.PROJECT && (delta.getFlags() & IResourceDelta.OPEN) != 0) {
+                        invalidate((IProject) delta.getResource());
+                        return false;
+                    }
+                    return delta.getResource().getType() != IResource.FILE;
+                }
+            });
+        } catch (CoreException e) {
+            Activator.logException("Error processing resource delta", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Holds back the builds of projects while they are being created, without turning off
+ * autobuild for the whole workspace. Nothing is written to the projects or to the
+ * workspace description: the held projects are only recorded in memory, so there is
+ * nothing to recover if the workbench goes down before they are released. Each step of
+ * the creation runs through run(), as a single workspace operation that holds the
+ * workspace root, so that no build can start while the step is under way. Releasing the
+ * projects then schedules one job that builds each of them once, if autobuild is on.
+ */
+public class BuildDeferral {
+    private static final BuildDeferral sInstance= new BuildDeferral();
+
+    private final Set<IProject> fHeld= new HashSet<IProject>();
+
+    public static BuildDeferral getInstance() {
+        return sInstance;
+    }
+
+    private BuildDeferral() { }
+
+    /**
+     * Holds back the builds of the given project until it is released (or abandoned).
+     */
+    public synchronized void hold(IProject project) {
+        fHeld.add(project);
+    }
+
+    public synchronized boolean isHeld(IProject project) {
+        return fHeld.contains(project);
+    }
+
+    /**
+     * Runs the given creation step in a single workspace operation that holds the
+     * workspace root, so that no build starts until the step is done.
+     */
+    public void run(IWorkspaceRunnable step, IProgressMonitor monitor) throws CoreException {
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+        workspace.run(step, workspace.getRoot(), IWorkspace.AVOID_UPDATE, monitor);
+    }
+
+    public void release(IProject project) {
+        release(Collections.singletonList(project));
+    }
+
+    /**
+     * Stops holding back the builds of the given projects, and schedules one job that
+     * builds those of them that were held, if autobuild is on.
+     */
+    public void release(Collection<IProject> projects) {
+        List<IProject> released= new ArrayList<IProject>();
+
+        synchronized (this) {
+            for(IProject project: projects) {
+                if (fHeld.remove(project)) {
+                    released.add(project);
+                }
+            }
+        }
+        if (!released.isEmpty() && ResourcesPlugin.getWorkspace().isAutoBuilding()) {
+            scheduleBuild(released);
+        }
+    }
+
+    /**
+     * Stops holding back the builds of the given project without building it, e.g.
+     * because its creation was abandoned.
+     */
+    public synchronized void abandon(IProject project) {
+        fHeld.remove(project);
+    }
+
+    private void scheduleBuild(final List<IProject> projects) {
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+        Job job= new WorkspaceJob("Building new projects") {
+            public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+                monitor.beginTask("", projects.size()); //$NON-NLS-1$
+                try {
+                    for(IProject project: projects) {
+                        if (project.isOpen()) {
+                            project.build(IncrementalProjectBuilder.INCREMENTAL_BUILD, new SubProgressMonitor(monitor, 1));
+                        } else {
+                            monitor.worked(1);
+                        }
+                    }
+                } finally {
+                    monitor.done();
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setRule(workspace.getRuleFactory().buildRule());
+        job.schedule();
+    }
+}
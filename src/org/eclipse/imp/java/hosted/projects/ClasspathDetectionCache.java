@@ -0,0 +1,266 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.imp.java.hosted.Activator;
+
+/**
+ * Persists the results of classpath detection in the plugin's state location, so that
+ * re-importing the same source tree (e.g. the same checkout into a fresh workspace) can
+ * reuse them instead of scanning the sources again. Results are keyed by the tree's
+ * location and validated by a fingerprint computed from the modification stamps and
+ * sorted listings of the tree's directories, and from the stamps of all the files in each
+ * directory that detection may read, since it falls back to the next one when a file
+ * can't be read (a directory's stamp doesn't change when a file in it is edited, e.g.
+ * when its package declaration is changed). The fingerprint is computed
+ * by the ParallelClasspathDetector from the directory listings it makes anyway, so that
+ * validating the cache doesn't require a separate walk of the tree. Detection results
+ * are stored relative to the project, so they are independent of the project's name.
+ */
+public class ClasspathDetectionCache {
+    private static final String CACHE_DIR= "classpathDetection"; //$NON-NLS-1$
+
+    private static final String FINGERPRINT_KEY= "fingerprint"; //$NON-NLS-1$
+
+    private static final String SOURCE_KEY= "source."; //$NON-NLS-1$
+
+    private static final String CLASS_KEY= "class."; //$NON-NLS-1$
+
+    private static final String LIBRARY_KEY= "library."; //$NON-NLS-1$
+
+    private static ClasspathDetectionCache sInstance;
+
+    /**
+     * The raw results of a detection: the project-relative paths of the source folders,
+     * class folders and libraries found.
+     */
+    public static class Detection {
+        private final List<IPath> fSourceFolders;
+
+        private final List<IPath> fClassFolders;
+
+        private final List<IPath> fLibraries;
+
+        public Detection(List<IPath> sourceFolders, List<IPath> classFolders, List<IPath> libraries) {
+            fSourceFolders= sourceFolders;
+            fClassFolders= classFolders;
+            fLibraries= libraries;
+        }
+
+        public List<IPath> getSourceFolders() {
+            return fSourceFolders;
+        }
+
+        public List<IPath> getClassFolders() {
+            return fClassFolders;
+        }
+
+        public List<IPath> getLibraries() {
+            return fLibraries;
+        }
+    }
+
+    private final File fCacheDir;
+
+    /**
+     * @return the cache in the plugin's state location, or null if the plugin isn't active
+     */
+    public static synchronized ClasspathDetectionCache getInstance() {
+        if (sInstance == null) {
+            Activator plugin= Activator.getDefault();
+
+            if (plugin == null) {
+                return null;
+            }
+            sInstance= new ClasspathDetectionCache(plugin.getStateLocation().append(CACHE_DIR).toFile());
+        }
+        return sInstance;
+    }
+
+    public ClasspathDetectionCache(File cacheDir) {
+        fCacheDir= cacheDir;
+    }
+
+    /**
+     * @return the cached detection for the tree at the given location, or null if there is
+     * none, or if the tree's fingerprint has changed since it was stored
+     */
+    public synchronized Detection lookup(File root, String fingerprint) {
+        File file= getCacheFile(root);
+
+        if (!file.exists()) {
+            return null;
+        }
+        Properties props= new Properties();
+        try {
+            InputStream is= new FileInputStream(file);
+            try {
+                props.load(is);
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            Activator.logException("Unable to read classpath detection cache " + file, e);
+            return null;
+        }
+        if (!fingerprint.equals(props.getProperty(FINGERPRINT_KEY))) {
+            return null;
+        }
+        return new Detection(readPaths(props, SOURCE_KEY), readPaths(props, CLASS_KEY), readPaths(props, LIBRARY_KEY));
+    }
+
+    /**
+     * Records the given detection for the tree at the given location.
+     */
+    public synchronized void store(File root, String fingerprint, Detection detection) {
+        File file= getCacheFile(root);
+        File tmpFile= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+        Properties props= new Properties();
+
+        props.setProperty(FINGERPRINT_KEY, fingerprint);
+        writePaths(props, SOURCE_KEY, detection.getSourceFolders());
+        writePaths(props, CLASS_KEY, detection.getClassFolders());
+        writePaths(props, LIBRARY_KEY, detection.getLibraries());
+        try {
+            fCacheDir.mkdirs();
+            OutputStream os= new FileOutputStream(tmpFile);
+            try {
+                props.store(os, root.getPath());
+            } finally {
+                os.close();
+            }
+            if (!tmpFile.renameTo(file)) {
+                file.delete();
+                if (!tmpFile.renameTo(file)) {
+                    tmpFile.delete();
+                }
+            }
+        } catch (IOException e) {
+            tmpFile.delete();
+            Activator.logException("Unable to write classpath detection cache " + file, e);
+        }
+    }
+
+    /**
+     * Discards all cached detections.
+     */
+    public synchronized void clear() {
+        File[] files= fCacheDir.listFiles();
+
+        if (files != null) {
+            for(int i= 0; i < files.length; i++) {
+                files[i].delete();
+            }
+        }
+    }
+
+    /**
+     * @return the fingerprint of one directory of a tree, from its path relative to the
+     * tree's root, its modification stamp, its sorted listing, and the stamps of the given
+     * files that detection may read
+     */
+    static String fingerprintDirectory(String relPath, long stamp, String[] sortedNames, List<File> sampledFiles) {
+        MessageDigest digest= newDigest();
+
+        update(digest, relPath);
+        update(digest, Long.toString(stamp));
+        for(int i= 0; i < sortedNames.length; i++) {
+            update(digest, sortedNames[i]);
+        }
+        for(File file: sampledFiles) {
+            update(digest, file.getName());
+            update(digest, Long.toString(file.lastModified()));
+            update(digest, Long.toString(file.length()));
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return the fingerprint of a tree, given those of its directories in any order
+     */
+    static String combineFingerprints(Collection<String> directoryFingerprints) {
+        List<String> sorted= new ArrayList<String>(directoryFingerprints);
+        MessageDigest digest= newDigest();
+
+        Collections.sort(sorted);
+        for(String fingerprint: sorted) {
+            update(digest, fingerprint);
+        }
+        return toHex(digest.digest());
+    }
+
+    private File getCacheFile(File root) {
+        MessageDigest digest= newDigest();
+        update(digest, root.getAbsolutePath());
+        return new File(fCacheDir, toHex(digest.digest()) + ".properties"); //$NON-NLS-1$
+    }
+
+    private static List<IPath> readPaths(Properties props, String keyPrefix) {
+        List<IPath> paths= new ArrayList<IPath>();
+        String value;
+
+        for(int i= 0; (value= props.getProperty(keyPrefix + i)) != null; i++) {
+            paths.add(Path.fromPortableString(value));
+        }
+        return paths;
+    }
+
+    private static void writePaths(Properties props, String keyPrefix, List<IPath> paths) {
+        for(int i= 0; i < paths.size(); i++) {
+            props.setProperty(keyPrefix + i, paths.get(i).toPortableString());
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        try {
+            digest.update(s.getBytes("UTF-8")); //$NON-NLS-1$
+            digest.update((byte) 0);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb= new StringBuilder(bytes.length * 2);
+
+        for(int i= 0; i < bytes.length; i++) {
+            sb.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(bytes[i] & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
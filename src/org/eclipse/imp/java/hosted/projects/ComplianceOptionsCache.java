@@ -0,0 +1,173 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ProjectScope;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.jdt.core.JavaCore;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Caches, per compliance level, the Java compiler options that JavaCore.setComplianceOptions()
+ * sets, split into those that differ from the workspace's current options and those that
+ * don't, so that they are computed once rather than for every new project. Applying a
+ * compliance level to a project writes the former to the project's JDT preferences node,
+ * removes any project-specific values of the latter (e.g. left over in the settings of an
+ * existing source tree), and flushes the node once, if anything changed. The cache is
+ * invalidated whenever the workspace's JDT options change.
+ */
+public class ComplianceOptionsCache {
+    /**
+     * The compliance options of one level
+     */
+    private static class LevelOptions {
+        /**
+         * The options whose values differ from the workspace's
+         */
+        private final Map<String, String> fChanged;
+
+        /**
+         * The keys of the options whose values match the workspace's
+         */
+        private final Set<String> fUnchanged;
+
+        private LevelOptions(Map<String, String> changed, Set<String> unchanged) {
+            fChanged= Collections.unmodifiableMap(changed);
+            fUnchanged= Collections.unmodifiableSet(unchanged);
+        }
+    }
+
+    private static ComplianceOptionsCache sInstance;
+
+    private final Map<String, LevelOptions> fOptions= new HashMap<String, LevelOptions>();
+
+    private final IPreferenceChangeListener fWorkspaceOptionsListener= new IPreferenceChangeListener() {
+        public void preferenceChange(PreferenceChangeEvent event) {
+            invalidate();
+        }
+    };
+
+    public static synchronized ComplianceOptionsCache getInstance() {
+        if (sInstance == null) {
+            sInstance= new ComplianceOptionsCache();
+        }
+        return sInstance;
+    }
+
+    public static synchronized void shutdown() {
+        if (sInstance != null) {
+            sInstance.getWorkspaceNode().removePreferenceChangeListener(sInstance.fWorkspaceOptionsListener);
+            sInstance= null;
+        }
+    }
+
+    private ComplianceOptionsCache() {
+        getWorkspaceNode().addPreferenceChangeListener(fWorkspaceOptionsListener);
+    }
+
+    /**
+     * @return the options that setting the given compliance level changes with respect to
+     * the workspace's options
+     */
+    public Map<String, String> getOptions(String compliance) {
+        return getLevelOptions(compliance).fChanged;
+    }
+
+    private synchronized LevelOptions getLevelOptions(String compliance) {
+        LevelOptions options= fOptions.get(compliance);
+
+        if (options == null) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> workspaceOptions= JavaCore.getOptions();
+            Map<String, String> complianceOptions= new HashMap<String, String>();
+            Map<String, String> changed= new HashMap<String, String>();
+            Set<String> unchanged= new HashSet<String>();
+
+            JavaCore.setComplianceOptions(compliance, complianceOptions);
+            for(Map.Entry<String, String> entry: complianceOptions.entrySet()) {
+                if (entry.getValue().equals(workspaceOptions.get(entry.getKey()))) {
+                    unchanged.add(entry.getKey());
+                } else {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            options= new LevelOptions(changed, unchanged);
+            fOptions.put(compliance, options);
+        }
+        return options;
+    }
+
+    /**
+     * Sets the given project's compliance options for the given compliance level: the
+     * options that differ from the workspace's are written to the project's preferences,
+     * and project-specific values of the others are removed, so that they are inherited
+     * from the workspace. The preferences are flushed at most once.
+     */
+    public void apply(IProject project, String compliance) throws CoreException {
+        LevelOptions options= getLevelOptions(compliance);
+        IEclipsePreferences node= new ProjectScope(project).getNode(JavaCore.PLUGIN_ID);
+        boolean modified= false;
+
+        for(Map.Entry<String, String> option: options.fChanged.entrySet()) {
+            if (!option.getValue().equals(node.get(option.getKey(), null))) {
+                node.put(option.getKey(), option.getValue());
+                modified= true;
+            }
+        }
+        for(String key: options.fUnchanged) {
+            if (node.get(key, null) != null) {
+                node.remove(key);
+                modified= true;
+            }
+        }
+        if (!modified) {
+            return; // the project's options already match
+        }
+        try {
+            node.flush();
+        } catch (BackingStoreException e) {
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Unable to set the compliance options of " + project.getName(), e));
+        }
+    }
+
+    /**
+     * Sets the compliance options of all of the given projects for the given compliance level.
+     */
+    public void apply(Collection<IProject> projects, String compliance) throws CoreException {
+        for(IProject project: projects) {
+            apply(project, compliance);
+        }
+    }
+
+    public synchronized void invalidate() {
+        fOptions.clear();
+    }
+
+    private IEclipsePreferences getWorkspaceNode() {
+        return new InstanceScope().getNode(JavaCore.PLUGIN_ID);
+    }
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+/**
+ * Headless application that creates a Java-hosted project using the
+ * JavaHostedProjectCreator, and prints the ProjectCreationMetrics report of the time
+ * spent in each phase. E.g.:
+ * <pre>
+ * eclipse -nosplash -data /tmp/ws -application org.eclipse.imp.java.hosted.createProject \
+ *     -name foo -layout srcbin -compliance 1.5 -nature org.example.fooNature
+ * </pre>
+ * Options: -name (required), -location (defaults to the workspace), -layout (one of
+ * srcbin, project or detect), -src and -bin (folder names for the srcbin layout),
+ * -compliance (Java compliance level) and -nature (may be repeated). With -count N,
+ * N projects named &lt;name&gt;1 .. &lt;name&gt;N are created in a single batch (each
+ * under &lt;location&gt;/&lt;name&gt;i, if a location is given). With -template ID, the
+ * projects are stamped out of the given template, if it exists; with -captureTemplate ID,
+ * the (first) created project is captured as the given template.
+ */
+public class CreateProjectApplication implements IApplication {
+    private int fCount= 1;
+
+    private String fCaptureTemplateId;
+
+    public Object start(IApplicationContext context) throws Exception {
+        ProjectCreationRequest request= parseArgs((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS));
+
+        if (request == null) {
+            System.err.println("Usage: -name <project> [-location <dir>] [-layout srcbin|project|detect] [-src <folder>] [-bin <folder>] [-compliance <level>] [-nature <id>]* [-count <n>] [-template <id>] [-captureTemplate <id>]");
+            return Integer.valueOf(1);
+        }
+        JavaHostedProjectCreator creator= new JavaHostedProjectCreator();
+        List<ProjectCreationResult> results;
+
+        if (fCount > 1) {
+            long start= System.nanoTime();
+            results= creator.createProjects(createBatch(request), null);
+            System.out.println("Created " + results.size() + " projects in " + ((System.nanoTime() - start) / 1000000) + " ms");
+        } else {
+            results= Collections.singletonList(creator.createProject(request, null));
+        }
+        if (fCaptureTemplateId != null) {
+            ProjectTemplateStore.getInstance().captureTemplate(fCaptureTemplateId, results.get(0).getProject(), null);
+        }
+        ResourcesPlugin.getWorkspace().save(true, null);
+
+        for(ProjectCreationResult result: results) {
+            IStatus status= result.getStatus();
+            IStatus[] problems= status.isMultiStatus() ? status.getChildren() : new IStatus[] { status };
+
+            for(int i= 0; i < problems.length; i++) {
+                if (problems[i].getSeverity() != IStatus.OK) {
+                    System.out.println(result.getProject().getName() + ": " + problems[i].getMessage());
+                }
+            }
+        }
+        System.out.print(ProjectCreationMetrics.getInstance().report());
+        return IApplication.EXIT_OK;
+    }
+
+    private List<ProjectCreationRequest> createBatch(ProjectCreationRequest prototype) {
+        List<ProjectCreationRequest> requests= new ArrayList<ProjectCreationRequest>(fCount);
+
+        for(int i= 1; i <= fCount; i++) {
+            ProjectCreationRequest request= new ProjectCreationRequest(prototype.getProjectName() + i);
+
+            if (prototype.getLocationURI() != null) {
+                request.setLocationURI(new File(new File(prototype.getLocationURI()), request.getProjectName()).toURI());
+            }
+            request.setLayout(prototype.getLayout());
+            request.setSourceFolderName(prototype.getSourceFolderName());
+            request.setOutputFolderName(prototype.getOutputFolderName());
+            request.setCompliance(prototype.getCompliance());
+            request.setTemplateId(prototype.getTemplateId());
+            for(String natureId: prototype.getNatureIds()) {
+                request.addNatureId(natureId);
+            }
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    public void stop() { }
+
+    private ProjectCreationRequest parseArgs(String[] args) {
+        if (args == null) {
+            return null;
+        }
+        String name= null;
+        for(int i= 0; i + 1 < args.length; i++) {
+            if (args[i].equals("-name")) {
+                name= args[i + 1];
+            }
+        }
+        if (name == null) {
+            return null;
+        }
+        ProjectCreationRequest request= new ProjectCreationRequest(name);
+        for(int i= 0; i + 1 < args.length; i++) {
+            if (args[i].equals("-name")) {
+                i++; // already handled
+            } else if (args[i].equals("-location")) {
+                request.setLocationURI(new File(args[++i]).getAbsoluteFile().toURI());
+            } else if (args[i].equals("-layout")) {
+                String layout= args[++i];
+                if (layout.equals("project")) {
+                    request.setLayout(ProjectCreationRequest.Layout.PROJECT_ROOT);
+                } else if (layout.equals("detect")) {
+                    request.setLayout(ProjectCreationRequest.Layout.DETECT);
+                } else if (layout.equals("srcbin")) {
+                    request.setLayout(ProjectCreationRequest.Layout.SRC_BIN);
+                } else {
+                    System.err.println("Unknown layout: " + layout);
+                    return null;
+                }
+            } else if (args[i].equals("-src")) {
+                request.setSourceFolderName(args[++i]);
+            } else if (args[i].equals("-bin")) {
+                request.setOutputFolderName(args[++i]);
+            } else if (args[i].equals("-compliance")) {
+                request.setCompliance(args[++i]);
+            } else if (args[i].equals("-nature")) {
+                request.addNatureId(args[++i]);
+            } else if (args[i].equals("-count")) {
+                fCount= Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-template")) {
+                request.setTemplateId(args[++i]);
+            } else if (args[i].equals("-captureTemplate")) {
+                fCaptureTemplateId= args[++i];
+            }
+        }
+        return request;
+    }
+}
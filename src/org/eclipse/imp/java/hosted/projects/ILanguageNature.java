@@ -0,0 +1,23 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Adds a language's nature to a new project, e.g. by way of IMP's ProjectNatureBase,
+ * which also configures the nature's builders. Lets the JavaHostedProjectCreator add the
+ * nature without depending on the IMP runtime.
+ */
+public interface ILanguageNature {
+    void addToProject(IProject project);
+}
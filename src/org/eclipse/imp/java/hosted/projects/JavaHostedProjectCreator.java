@@ -0,0 +1,475 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceStatus;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.imp.java.hosted.JREInstallIndex;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.JavaRuntime;
+
+/**
+ * Creates and configures Java-hosted language projects without any UI: creates the
+ * project resource, lays out its source and output folders (or detects them from
+ * existing sources), configures the Java classpath and compliance options, and adds the
+ * language's nature. Each phase is also available individually, so that the new project
+ * wizard can interleave them with user interaction; createProject() runs them all in a
+ * single workspace operation, recording the time spent in each.
+ */
+public class JavaHostedProjectCreator {
+    public static final String PHASE_CREATE_PROJECT= "createProject";
+
+    public static final String PHASE_CLASSPATH= "classpath";
+
+    public static final String PHASE_CONFIGURE_JAVA= "configureJavaProject";
+
+    public static final String PHASE_NATURES= "natures";
+
+    public static final String PHASE_COMPLIANCE= "complianceOptions";
+
+    private static final String FILENAME_PROJECT= ".project"; //$NON-NLS-1$
+
+    private static final String FILENAME_CLASSPATH= ".classpath"; //$NON-NLS-1$
+
+    /**
+     * Creates and fully configures the project described by the given request, in a
+     * single workspace operation.
+     */
+    public ProjectCreationResult createProject(final ProjectCreationRequest request, IProgressMonitor monitor) throws CoreException {
+        final ProjectCreationResult[] result= new ProjectCreationResult[1];
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+        workspace.run(new IWorkspaceRunnable() {
+            public void run(IProgressMonitor monitor) throws CoreException {
+                result[0]= runPhases(request, monitor);
+            }
+        }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, monitor);
+        return result[0];
+    }
+
+    /**
+     * Creates and fully configures all of the projects described by the given requests,
+     * in a single workspace operation, so that listeners see a single resource delta.
+     * Since the operation holds the workspace root, autobuild can't run until all of the
+     * projects have been created, and then builds them all at once; no BuildDeferral is
+     * needed.
+     * @return the results, in the same order as the requests
+     */
+    public List<ProjectCreationResult> createProjects(final List<ProjectCreationRequest> requests, IProgressMonitor monitor) throws CoreException {
+        final List<ProjectCreationResult> results= new ArrayList<ProjectCreationResult>(requests.size());
+        IWorkspace workspace= ResourcesPlugin.getWorkspace();
+
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        monitor.beginTask("Creating " + requests.size() + " projects...", requests.size());
+        try {
+            workspace.run(new IWorkspaceRunnable() {
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    monitor.beginTask("", requests.size()); //$NON-NLS-1$
+                    try {
+                        for(ProjectCreationRequest request: requests) {
+                            if (monitor.isCanceled()) {
+                                throw new OperationCanceledException();
+                            }
+                            results.add(runPhases(request, new SubProgressMonitor(monitor, 1)));
+                        }
+                    } finally {
+                        monitor.done();
+                    }
+                }
+            }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, new SubProgressMonitor(monitor, requests.size()));
+        } finally {
+            monitor.done();
+        }
+        return results;
+    }
+
+    private ProjectCreationResult runPhases(ProjectCreationRequest request, IProgressMonitor monitor) throws CoreException {
+        if (request.getTemplateId() != null) {
+            ProjectTemplateStore templates= ProjectTemplateStore.getInstance();
+
+            if (templates != null && templates.hasTemplate(request.getTemplateId())) {
+                ProjectCreationResult result= templates.createFromTemplate(request.getTemplateId(), request, monitor);
+
+                ProjectCreationMetrics.getInstance().increment(ProjectCreationMetrics.COUNTER_TEMPLATE_PROJECTS);
+                ProjectCreationMetrics.getInstance().increment(ProjectCreationMetrics.COUNTER_PROJECTS_CREATED);
+                return result;
+            }
+        }
+        monitor.beginTask("Creating project " + request.getProjectName() + "...", 8);
+        try {
+            ProjectCreationResult result= createProjectResource(request, new SubProgressMonitor(monitor, 2));
+            computeClasspath(result, request, new SubProgressMonitor(monitor, 2));
+            configureJavaProject(result, new SubProgressMonitor(monitor, 2));
+            addNatures(result, request, new SubProgressMonitor(monitor, 1));
+            applyComplianceOptions(result, request.getCompliance());
+            monitor.worked(1);
+            ProjectCreationMetrics.getInstance().increment(ProjectCreationMetrics.COUNTER_PROJECTS_CREATED);
+            return result;
+        } finally {
+            monitor.done();
+        }
+    }
+
+    /**
+     * Creates and opens the project resource. If an existing .project file at the project's
+     * location is corrupt, it is replaced, and the result carries an INFO status saying so.
+     */
+    public ProjectCreationResult createProjectResource(ProjectCreationRequest request, IProgressMonitor monitor) throws CoreException {
+        long start= System.nanoTime();
+        IProject project= ResourcesPlugin.getWorkspace().getRoot().getProject(request.getProjectName());
+        ProjectCreationResult result= new ProjectCreationResult(project);
+
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        try {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            try {
+                createProject(project, request.getLocationURI(), monitor);
+            } catch (CoreException e) {
+                if (e.getStatus().getCode() == IResourceStatus.FAILED_READ_METADATA) {
+                    result.addStatus(new Status(IStatus.INFO, Activator.PLUGIN_ID,
+                            MessageFormat.format("A problem occurred while creating the project from existing source:\n\n''{0}''\n\nThe corrupt project file will be replaced by a valid one.",
+                                            e.getLocalizedMessage())));
+
+                    deleteProjectFile(getRealLocation(project, request.getLocationURI()));
+                    if (project.exists())
+                        project.delete(true, null);
+
+                    createProject(project, request.getLocationURI(), null);
+                } else {
+                    throw e;
+                }
+            }
+        } finally {
+            result.addPhaseTime(PHASE_CREATE_PROJECT, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the project's classpath and output location according to the request's
+     * layout, creating the source and output folders as needed, and records them in the
+     * given result. For the DETECT layout, an existing .classpath file is left as is.
+     */
+    public void computeClasspath(ProjectCreationResult result, ProjectCreationRequest request, IProgressMonitor monitor) throws CoreException {
+        long start= System.nanoTime();
+        IProject project= result.getProject();
+
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        try {
+            monitor.beginTask("", 2); //$NON-NLS-1$
+            if (request.getLayout() == ProjectCreationRequest.Layout.DETECT) {
+                IClasspathEntry[] entries= null;
+                IPath outputLocation= null;
+
+                if (!project.getFile(FILENAME_CLASSPATH).exists()) {
+                    ParallelClasspathDetector detector= new ParallelClasspathDetector(project, getDefaultClasspathEntries(request));
+                    detector.setListener(request.getDetectionListener());
+                    detector.setCache(ClasspathDetectionCache.getInstance());
+                    detector.setDefaultOutputLocation(project.getFullPath().append(request.getOutputFolderName()));
+                    detector.detect(new SubProgressMonitor(monitor, 2));
+                    entries= detector.getClasspath();
+                    outputLocation= detector.getOutputLocation();
+                    if (!detector.getStatus().isOK()) {
+                        result.addStatus(detector.getStatus());
+                    }
+                } else {
+                    monitor.worked(2);
+                }
+                result.setClasspath(entries, outputLocation);
+            } else {
+                getProjectLayout(request).materialize(project, new SubProgressMonitor(monitor, 2));
+                computeClasspathModel(result, request);
+            }
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+        } finally {
+            monitor.done();
+            result.addPhaseTime(PHASE_CLASSPATH, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the folder layout implied by the request: its source and output folders for
+     * the SRC_BIN layout, and no folders otherwise (the project itself is the source and
+     * output folder for PROJECT_ROOT, and DETECT uses whatever folders already exist)
+     */
+    public ProjectLayout getProjectLayout(ProjectCreationRequest request) {
+        ProjectLayout layout= new ProjectLayout();
+
+        if (request.getLayout() == ProjectCreationRequest.Layout.SRC_BIN) {
+            layout.addSourceFolder(request.getSourceFolderName());
+            layout.addOutputFolder(request.getOutputFolderName());
+        }
+        return layout;
+    }
+
+    /**
+     * Computes the classpath and output location that computeClasspath() would produce
+     * for the request's layout, without touching the workspace or the file system, and
+     * records them in the given result. For the DETECT layout, nothing is known until the
+     * project's contents have been scanned, so the result's classpath is left unset.
+     */
+    public void computeClasspathModel(ProjectCreationResult result, ProjectCreationRequest request) {
+        IClasspathEntry[] entries= null;
+        IPath outputLocation= null;
+
+        if (request.getLayout() != ProjectCreationRequest.Layout.DETECT) {
+            IPath projectPath= result.getProject().getFullPath();
+            IPath srcPath= projectPath;
+
+            outputLocation= projectPath;
+            if (request.getLayout() == ProjectCreationRequest.Layout.SRC_BIN) {
+                srcPath= projectPath.append(request.getSourceFolderName());
+                outputLocation= projectPath.append(request.getOutputFolderName());
+            }
+
+            // configure the classpath entries, including the default jre library.
+            List<IClasspathEntry> cpEntries= new ArrayList<IClasspathEntry>();
+            cpEntries.add(JavaCore.newSourceEntry(srcPath));
+            cpEntries.addAll(Arrays.asList(getDefaultClasspathEntries(request)));
+            entries= cpEntries.toArray(new IClasspathEntry[cpEntries.size()]);
+        }
+        result.setClasspath(entries, outputLocation);
+    }
+
+    /**
+     * Adds the Java nature to the project and sets its classpath and output location to
+     * those recorded in the given result (if any), creating any missing source and
+     * output folders.
+     */
+    public void configureJavaProject(ProjectCreationResult result, IProgressMonitor monitor) throws CoreException {
+        long start= System.nanoTime();
+        IProject project= result.getProject();
+
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        try {
+            monitor.beginTask("", 3); //$NON-NLS-1$
+            addNatureIds(project, new String[] { JavaCore.NATURE_ID }, new SubProgressMonitor(monitor, 1));
+
+            IClasspathEntry[] entries= result.getClasspath();
+            IPath outputLocation= result.getOutputLocation();
+
+            if (entries != null && outputLocation != null) {
+                ProjectLayout.fromClasspath(project, entries, outputLocation).materialize(project, new SubProgressMonitor(monitor, 1));
+                JavaCore.create(project).setRawClasspath(entries, outputLocation, new SubProgressMonitor(monitor, 1));
+            } else {
+                monitor.worked(2);
+            }
+        } finally {
+            monitor.done();
+            result.addPhaseTime(PHASE_CONFIGURE_JAVA, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds the request's language nature and any additional natures to the project.
+     */
+    public void addNatures(ProjectCreationResult result, ProjectCreationRequest request, IProgressMonitor monitor) throws CoreException {
+        long start= System.nanoTime();
+        IProject project= result.getProject();
+
+        try {
+            List<String> natureIds= request.getNatureIds();
+            if (!natureIds.isEmpty()) {
+                addNatureIds(project, natureIds.toArray(new String[natureIds.size()]), monitor);
+            }
+            if (request.getNature() != null) {
+                request.getNature().addToProject(project);
+            }
+        } finally {
+            result.addPhaseTime(PHASE_NATURES, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sets the Java compliance options of the project for the given compliance level,
+     * using the precomputed options of the ComplianceOptionsCache.
+     * @param compliance the compliance level, or null to do nothing
+     */
+    public void applyComplianceOptions(ProjectCreationResult result, String compliance) throws CoreException {
+        long start= System.nanoTime();
+
+        try {
+            if (compliance != null) {
+                ComplianceOptionsCache.getInstance().apply(result.getProject(), compliance);
+            }
+        } finally {
+            result.addPhaseTime(PHASE_COMPLIANCE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the language runtime entries of the given request, followed by a container
+     * entry for the JRE that best matches the request's compliance level (or for the
+     * default JRE, if none matches)
+     */
+    public IClasspathEntry[] getDefaultClasspathEntries(ProjectCreationRequest request) {
+        List<IClasspathEntry> cpEntries= new ArrayList<IClasspathEntry>(request.getRuntimeEntries());
+        String compliance= request.getCompliance();
+        IVMInstall inst= (compliance != null) ? JREInstallIndex.getInstance().findInstall(compliance) : null;
+
+        if (inst != null) {
+            IPath jreContainerPath= new Path(JavaRuntime.JRE_CONTAINER);
+            IPath newPath= jreContainerPath.append(inst.getVMInstallType().getId()).append(inst.getName());
+            cpEntries.add(JavaCore.newContainerEntry(newPath));
+        } else {
+            // Didn't find a compatible JRE; use the default
+            cpEntries.add(JavaRuntime.getDefaultJREContainerEntry());
+        }
+        return cpEntries.toArray(new IClasspathEntry[cpEntries.size()]);
+    }
+
+    /**
+     * Creates the given project at the given location (or the default location, if
+     * null), if it doesn't already exist, and opens it.
+     */
+    public static void createProject(IProject project, URI locationURI, IProgressMonitor monitor) throws CoreException {
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        monitor.beginTask("", 2); //$NON-NLS-1$
+        try {
+            if (!project.exists()) {
+                IProjectDescription desc= project.getWorkspace().newProjectDescription(project.getName());
+                if (locationURI != null && ResourcesPlugin.getWorkspace().getRoot().getLocationURI().equals(locationURI)) {
+                    locationURI= null;
+                }
+                desc.setLocationURI(locationURI);
+                project.create(desc, new SubProgressMonitor(monitor, 1));
+            } else {
+                monitor.worked(1);
+            }
+            if (!project.isOpen()) {
+                project.open(new SubProgressMonitor(monitor, 1));
+            } else {
+                monitor.worked(1);
+            }
+        } finally {
+            monitor.done();
+        }
+    }
+
+    /**
+     * @return the actual location of the given project's contents, given its location URI
+     * (null meaning the default location in the workspace)
+     */
+    public static URI getRealLocation(IProject project, URI locationURI) {
+        if (locationURI != null) {
+            return locationURI;
+        }
+        try {
+            URI rootLocation= ResourcesPlugin.getWorkspace().getRoot().getLocationURI();
+            return new URI(rootLocation.getScheme(), null, Path.fromPortableString(rootLocation.getPath()).append(project.getName()).toString(), null);
+        } catch (URISyntaxException e) {
+            Assert.isTrue(false, "Can't happen"); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    /**
+     * Creates a folder and all parent folders if not existing.
+     * Project must exist.
+     * <code> org.eclipse.ui.dialogs.ContainerGenerator</code> is too heavy
+     * (creates a runnable)
+     */
+    public static void createFolder(IFolder folder, boolean force, boolean local, IProgressMonitor monitor) throws CoreException {
+        if (!folder.exists()) {
+            IContainer parent= folder.getParent();
+            if (parent instanceof IFolder) {
+                createFolder((IFolder)parent, force, local, null);
+            }
+            folder.create(force, local, monitor);
+        }
+    }
+
+    /**
+     * Like createFolder(), but marks the created folders as derived.
+     */
+    public static void createDerivedFolder(IFolder folder, boolean force, boolean local, IProgressMonitor monitor) throws CoreException {
+        if (!folder.exists()) {
+            IContainer parent= folder.getParent();
+            if (parent instanceof IFolder) {
+                createDerivedFolder((IFolder)parent, force, local, null);
+            }
+            folder.create(force ? (IResource.FORCE | IResource.DERIVED) : IResource.DERIVED, local, monitor);
+        }
+    }
+
+    private static void addNatureIds(IProject project, String[] natureIds, IProgressMonitor monitor) throws CoreException {
+        IProjectDescription desc= project.getDescription();
+        List<String> natures= new ArrayList<String>(Arrays.asList(desc.getNatureIds()));
+        boolean changed= false;
+
+        for(int i= 0; i < natureIds.length; i++) {
+            if (!natures.contains(natureIds[i])) {
+                natures.add(natureIds[i]);
+                changed= true;
+            }
+        }
+        if (changed) {
+            desc.setNatureIds(natures.toArray(new String[natures.size()]));
+            project.setDescription(desc, monitor);
+        } else if (monitor != null) {
+            monitor.done();
+        }
+    }
+
+    private static void deleteProjectFile(URI projectLocation) throws CoreException {
+        IFileStore file= EFS.getStore(projectLocation);
+        if (file.fetchInfo().exists()) {
+            IFileStore projectFile= file.getChild(FILENAME_PROJECT);
+            if (projectFile.fetchInfo().exists()) {
+                projectFile.delete(EFS.NONE, null);
+            }
+        }
+    }
+}
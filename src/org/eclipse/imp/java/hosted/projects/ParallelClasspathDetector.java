@@ -0,0 +1,633 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.util.IClassFileReader;
+
+/**
+ * Detects the source folders, output folder and libraries of an existing source tree
+ * in a project's location, for projects created with the DETECT layout. The tree is
+ * walked directly on the file system by a pool of worker threads, one directory per
+ * task, so that large trees are scanned in parallel and without first being refreshed
+ * into the workspace. Source folders are inferred from the package declaration of the
+ * first compilation unit in each directory (other than package-info.java), and the output
+ * folder from the name of the first class file in each directory. If class files are found
+ * in several folders, the output folder isn't guessed from them: the default output
+ * location is used instead, and reported in a WARNING status.
+ * <p>
+ * The walk first only lists the directories, recording the candidate files to read in
+ * each. If a ClasspathDetectionCache is set, the fingerprint of the tree is computed from
+ * those listings as they are made, and the results of an earlier detection on an unchanged
+ * tree are reused; otherwise (or on a cache miss) the recorded files are then read, again
+ * in parallel, without walking the tree a second time.
+ * <p>
+ * Folders and libraries are reported to an optional IDetectionListener as soon as they
+ * are found, and progress is reported to the monitor while the walk proceeds; cancelling
+ * the monitor stops the walk within a fraction of a second.
+ */
+public class ParallelClasspathDetector {
+    /**
+     * Receives partial results while the detection proceeds. Methods are called from the
+     * worker threads, at most once per folder or library, in no particular order.
+     */
+    public interface IDetectionListener {
+        void sourceFolderFound(IPath folder);
+
+        void classFolderFound(IPath folder);
+
+        void libraryFound(IPath library);
+    }
+
+    private static final int HEAD_SIZE= 8192;
+
+    private static final long POLL_INTERVAL= 100; // ms
+
+    /**
+     * The result of listing one directory: the compilation units and class files from
+     * which the packages in it can be inferred, in the order in which to try them
+     */
+    private static class DirectoryListing {
+        private final IPath fPath;
+
+        private final List<File> fCompilationUnits;
+
+        private final List<File> fClassFiles;
+
+        private DirectoryListing(IPath path, List<File> compilationUnits, List<File> classFiles) {
+            fPath= path;
+            fCompilationUnits= compilationUnits;
+            fClassFiles= classFiles;
+        }
+    }
+
+    private static final Comparator<IPath> PATH_ORDER= new Comparator<IPath>() {
+        public int compare(IPath p1, IPath p2) {
+            return p1.toString().compareTo(p2.toString());
+        }
+    };
+
+    private final IProject fProject;
+
+    private final IClasspathEntry[] fDefaultEntries;
+
+    private final int fThreads;
+
+    private IDetectionListener fListener;
+
+    private ClasspathDetectionCache fCache;
+
+    private final ConcurrentHashMap<IPath, Boolean> fSourceFolders= new ConcurrentHashMap<IPath, Boolean>();
+
+    private final ConcurrentHashMap<IPath, Boolean> fClassFolders= new ConcurrentHashMap<IPath, Boolean>();
+
+    private final ConcurrentHashMap<IPath, Boolean> fLibraries= new ConcurrentHashMap<IPath, Boolean>();
+
+    /**
+     * The canonical paths of the directories scanned so far, so that symbolic links
+     * leading back up the tree aren't followed forever
+     */
+    private final ConcurrentHashMap<String, Boolean> fVisitedDirs= new ConcurrentHashMap<String, Boolean>();
+
+    private final ConcurrentLinkedQueue<DirectoryListing> fListings= new ConcurrentLinkedQueue<DirectoryListing>();
+
+    /**
+     * The fingerprints of the directories listed so far; only computed if there is a cache
+     */
+    private final ConcurrentLinkedQueue<String> fDirectoryFingerprints= new ConcurrentLinkedQueue<String>();
+
+    private final AtomicInteger fPending= new AtomicInteger();
+
+    private final AtomicInteger fFilesScanned= new AtomicInteger();
+
+    private final Object fLock= new Object();
+
+    private volatile boolean fCanceled;
+
+    private ExecutorService fExecutor;
+
+    private String fEncoding;
+
+    private IClasspathEntry[] fResultClasspath;
+
+    private IPath fResultOutputLocation;
+
+    private IPath fDefaultOutputLocation;
+
+    private IStatus fResultStatus= Status.OK_STATUS;
+
+    /**
+     * @param defaultEntries the entries (e.g. the language runtime and the JRE) to append
+     * to the detected source folders and libraries
+     */
+    public ParallelClasspathDetector(IProject project, IClasspathEntry[] defaultEntries) {
+        this(project, defaultEntries, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public ParallelClasspathDetector(IProject project, IClasspathEntry[] defaultEntries, int threads) {
+        fProject= project;
+        fDefaultEntries= defaultEntries;
+        fThreads= threads;
+    }
+
+    public void setListener(IDetectionListener listener) {
+        fListener= listener;
+    }
+
+    /**
+     * Sets the output location to use when it can't be inferred from the class files found,
+     * i.e. when there are none, or when they are in several folders. Defaults to the
+     * project's "bin" folder.
+     */
+    public void setDefaultOutputLocation(IPath outputLocation) {
+        fDefaultOutputLocation= outputLocation;
+    }
+
+    /**
+     * Sets the cache in which to look up the results of a previous detection on an
+     * unchanged tree at the same location, and in which to store new results.
+     */
+    public void setCache(ClasspathDetectionCache cache) {
+        fCache= cache;
+    }
+
+    /**
+     * Walks the project's contents, and computes the resulting classpath.
+     * @throws OperationCanceledException if the monitor is cancelled
+     */
+    public void detect(IProgressMonitor monitor) {
+        IPath location= fProject.getLocation();
+
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        if (location == null) {
+            return; // not on the local file system; nothing we can detect
+        }
+        File root= location.toFile();
+        String fingerprint= null;
+
+        fEncoding= ResourcesPlugin.getEncoding();
+        fExecutor= Executors.newFixedThreadPool(fThreads, new ThreadFactory() {
+            private int fCount= 0;
+
+            public synchronized Thread newThread(Runnable r) {
+                Thread thread= new Thread(r, "Classpath detection " + (++fCount));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        monitor.beginTask("Detecting classpath...", IProgressMonitor.UNKNOWN);
+        try {
+            scheduleListing(root, fProject.getFullPath());
+            awaitTasks(monitor);
+            if (fCache != null) {
+                fingerprint= ClasspathDetectionCache.combineFingerprints(fDirectoryFingerprints);
+                ClasspathDetectionCache.Detection detection= fCache.lookup(root, fingerprint);
+
+                if (detection != null) {
+                    ProjectCreationMetrics.getInstance().increment(ProjectCreationMetrics.COUNTER_DETECTION_CACHE_HITS);
+                    foundAll(fSourceFolders, detection.getSourceFolders());
+                    foundAll(fClassFolders, detection.getClassFolders());
+                    foundAll(fLibraries, detection.getLibraries());
+                    computeClasspath();
+                    return;
+                }
+                ProjectCreationMetrics.getInstance().increment(ProjectCreationMetrics.COUNTER_DETECTION_CACHE_MISSES);
+            }
+            for(DirectoryListing listing: fListings) {
+                scheduleReading(listing);
+            }
+            awaitTasks(monitor);
+        } catch (InterruptedException e) {
+            fCanceled= true;
+            throw new OperationCanceledException();
+        } finally {
+            fExecutor.shutdownNow();
+            fExecutor= null;
+            monitor.done();
+        }
+        if (fCache != null) {
+            fCache.store(root, fingerprint, new ClasspathDetectionCache.Detection(relative(fSourceFolders), relative(fClassFolders), relative(fLibraries)));
+        }
+        computeClasspath();
+    }
+
+    /**
+     * @return the detected classpath, or null if neither sources nor class files were found
+     */
+    public IClasspathEntry[] getClasspath() {
+        return fResultClasspath;
+    }
+
+    /**
+     * @return the detected output location, or null if neither sources nor class files
+     * were found
+     */
+    public IPath getOutputLocation() {
+        return fResultOutputLocation;
+    }
+
+    /**
+     * @return OK, or a WARNING status if class files were found in several folders, so
+     * that the default output location was used
+     */
+    public IStatus getStatus() {
+        return fResultStatus;
+    }
+
+    private void scheduleListing(final File dir, final IPath path) {
+        schedule(dir, new Runnable() {
+            public void run() {
+                listDirectory(dir, path);
+            }
+        });
+    }
+
+    private void scheduleReading(final DirectoryListing listing) {
+        schedule(null, new Runnable() {
+            public void run() {
+                readDirectory(listing);
+            }
+        });
+    }
+
+    private void schedule(final File dir, final Runnable task) {
+        fPending.incrementAndGet();
+        try {
+            fExecutor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        if (!fCanceled) {
+                            task.run();
+                        }
+                    } catch (RuntimeException e) {
+                        Activator.logException("Error while detecting the classpath in " + ((dir != null) ? dir : fProject.getLocation()), e);
+                    } finally {
+                        taskDone();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            taskDone(); // shut down after cancellation
+        }
+    }
+
+    /**
+     * Waits until all scheduled tasks (and the tasks they schedule) have completed.
+     * @throws OperationCanceledException if the monitor is cancelled meanwhile
+     */
+    private void awaitTasks(IProgressMonitor monitor) throws InterruptedException {
+        synchronized (fLock) {
+            while (fPending.get() > 0) {
+                if (monitor.isCanceled()) {
+                    fCanceled= true;
+                    throw new OperationCanceledException();
+                }
+                fLock.wait(POLL_INTERVAL);
+                monitor.subTask("Scanned " + fFilesScanned.get() + " files, found " + fSourceFolders.size() + " source folders");
+                monitor.worked(1);
+            }
+        }
+    }
+
+    private void taskDone() {
+        if (fPending.decrementAndGet() == 0) {
+            synchronized (fLock) {
+                fLock.notifyAll();
+            }
+        }
+    }
+
+    private void listDirectory(File dir, IPath path) {
+        try {
+            if (fVisitedDirs.putIfAbsent(dir.getCanonicalPath(), Boolean.TRUE) != null) {
+                return; // reached again via a symbolic link
+            }
+        } catch (IOException e) {
+            Activator.logException("Unable to resolve " + dir, e);
+            return;
+        }
+        String[] names= dir.list();
+
+        if (names == null) {
+            return;
+        }
+        List<File> compilationUnits= new ArrayList<File>();
+        List<File> classFiles= new ArrayList<File>();
+
+        Arrays.sort(names);
+        for(int i= 0; i < names.length && !fCanceled; i++) {
+            String name= names[i];
+
+            if (name.endsWith(".java")) { //$NON-NLS-1$
+                // package-info.java may start with annotations rather than with its package declaration
+                if (!name.equals("package-info.java")) { //$NON-NLS-1$
+                    compilationUnits.add(new File(dir, name));
+                }
+            } else if (name.endsWith(".class")) { //$NON-NLS-1$
+                classFiles.add(new File(dir, name));
+            } else if (name.endsWith(".jar") || name.endsWith(".zip")) { //$NON-NLS-1$ //$NON-NLS-2$
+                if (new File(dir, name).isFile()) {
+                    found(fLibraries, path.append(name));
+                }
+            } else if (name.charAt(0) != '.') {
+                File child= new File(dir, name);
+                if (child.isDirectory()) {
+                    scheduleListing(child, path.append(name));
+                }
+            }
+        }
+        fFilesScanned.addAndGet(names.length);
+        if (!compilationUnits.isEmpty() || !classFiles.isEmpty()) {
+            fListings.add(new DirectoryListing(path, compilationUnits, classFiles));
+        }
+        if (fCache != null) {
+            // A change to any of the files that may be read on a cache miss (e.g. to a package
+            // declaration) can change the result: not only to the first ones, since reading
+            // falls back to the next file when one can't be read
+            List<File> candidates= new ArrayList<File>(compilationUnits);
+            candidates.addAll(classFiles);
+            String relPath= path.removeFirstSegments(fProject.getFullPath().segmentCount()).toPortableString();
+
+            fDirectoryFingerprints.add(ClasspathDetectionCache.fingerprintDirectory(relPath, dir.lastModified(), names, candidates));
+        }
+    }
+
+    /**
+     * Infers the source and class folders containing the given directory from the first
+     * of its compilation units and class files that can be read.
+     */
+    private void readDirectory(DirectoryListing listing) {
+        for(int i= 0; i < listing.fCompilationUnits.size() && !fCanceled; i++) {
+            if (visitCompilationUnit(listing.fCompilationUnits.get(i), listing.fPath)) {
+                break;
+            }
+        }
+        for(int i= 0; i < listing.fClassFiles.size() && !fCanceled; i++) {
+            if (visitClassFile(listing.fClassFiles.get(i), listing.fPath)) {
+                break;
+            }
+        }
+    }
+
+    private boolean visitCompilationUnit(File file, IPath folder) {
+        try {
+            String[] pkg= readPackage(file);
+
+            if (pkg != null) {
+                IPath root= getRoot(folder, pkg);
+                if (root != null) {
+                    found(fSourceFolders, root);
+                }
+                return true;
+            }
+        } catch (IOException e) {
+            Activator.logException("Unable to read " + file, e);
+        }
+        return false;
+    }
+
+    private boolean visitClassFile(File file, IPath folder) {
+        IClassFileReader reader= ToolFactory.createDefaultClassFileReader(file.getAbsolutePath(), IClassFileReader.CONSTANT_POOL);
+
+        if (reader == null) {
+            return false;
+        }
+        String[] segments= new String(reader.getClassName()).split("/"); //$NON-NLS-1$
+        String[] pkg= new String[segments.length - 1];
+
+        System.arraycopy(segments, 0, pkg, 0, pkg.length);
+
+        IPath root= getRoot(folder, pkg);
+        if (root != null) {
+            found(fClassFolders, root);
+        }
+        return true;
+    }
+
+    /**
+     * @return the folder of which the given folder is the package with the given name,
+     * or null if the folder's path doesn't end with the package's segments
+     */
+    private IPath getRoot(IPath folder, String[] pkg) {
+        if (folder.segmentCount() <= pkg.length) {
+            return null;
+        }
+        for(int i= 0; i < pkg.length; i++) {
+            if (!folder.segment(folder.segmentCount() - pkg.length + i).equals(pkg[i])) {
+                return null;
+            }
+        }
+        return folder.removeLastSegments(pkg.length);
+    }
+
+    private void found(ConcurrentHashMap<IPath, Boolean> paths, IPath path) {
+        if (paths.putIfAbsent(path, Boolean.TRUE) == null && fListener != null) {
+            if (paths == fSourceFolders) {
+                fListener.sourceFolderFound(path);
+            } else if (paths == fClassFolders) {
+                fListener.classFolderFound(path);
+            } else {
+                fListener.libraryFound(path);
+            }
+        }
+    }
+
+    private void foundAll(ConcurrentHashMap<IPath, Boolean> paths, List<IPath> relativePaths) {
+        IPath projectPath= fProject.getFullPath();
+
+        for(IPath path: relativePaths) {
+            found(paths, projectPath.append(path));
+        }
+    }
+
+    private List<IPath> relative(ConcurrentHashMap<IPath, Boolean> paths) {
+        List<IPath> result= sorted(paths);
+        int projectSegments= fProject.getFullPath().segmentCount();
+
+        for(int i= 0; i < result.size(); i++) {
+            result.set(i, result.get(i).removeFirstSegments(projectSegments).makeRelative());
+        }
+        return result;
+    }
+
+    /**
+     * @return the segments of the package declared by the given compilation unit (empty
+     * for the default package), or null if it can't be scanned
+     */
+    private String[] readPackage(File file) throws IOException {
+        char[] head= readChars(file, HEAD_SIZE);
+        String[] pkg= scanPackage(head);
+
+        if (pkg == null && head.length == HEAD_SIZE) {
+            // The package declaration may be preceded by a long header comment
+            pkg= scanPackage(readChars(file, Integer.MAX_VALUE));
+        }
+        return pkg;
+    }
+
+    private String[] scanPackage(char[] source) {
+        IScanner scanner= ToolFactory.createScanner(false, false, false, false);
+        scanner.setSource(source);
+        try {
+            int token= scanner.getNextToken();
+            if (token != ITerminalSymbols.TokenNamepackage) {
+                return (token == ITerminalSymbols.TokenNameEOF) ? null : new String[0];
+            }
+            List<String> segments= new ArrayList<String>();
+            while ((token= scanner.getNextToken()) == ITerminalSymbols.TokenNameIdentifier) {
+                segments.add(new String(scanner.getCurrentTokenSource()));
+                if ((token= scanner.getNextToken()) != ITerminalSymbols.TokenNameDOT) {
+                    break;
+                }
+            }
+            return (token == ITerminalSymbols.TokenNameSEMICOLON) ? segments.toArray(new String[segments.size()]) : null;
+        } catch (InvalidInputException e) {
+            return null;
+        }
+    }
+
+    private char[] readChars(File file, int max) throws IOException {
+        Reader reader= new InputStreamReader(new FileInputStream(file), fEncoding);
+        try {
+            char[] buf= new char[(int) Math.min(max, Math.max(file.length(), 16))];
+            int len= 0;
+            int n;
+
+            while ((n= reader.read(buf, len, buf.length - len)) > 0) {
+                len+= n;
+                if (len == buf.length) {
+                    if (len == max) {
+                        break;
+                    }
+                    char[] newBuf= new char[(int) Math.min(max, 2L * len)];
+                    System.arraycopy(buf, 0, newBuf, 0, len);
+                    buf= newBuf;
+                }
+            }
+            if (len == buf.length) {
+                return buf;
+            }
+            char[] result= new char[len];
+            System.arraycopy(buf, 0, result, 0, len);
+            return result;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void computeClasspath() {
+        List<IPath> sourceFolders= sorted(fSourceFolders);
+        List<IPath> classFolders= sorted(fClassFolders);
+
+        if (sourceFolders.isEmpty() && classFolders.isEmpty()) {
+            return;
+        }
+        IPath projectPath= fProject.getFullPath();
+        IPath outputLocation;
+
+        if (classFolders.size() == 1) {
+            outputLocation= classFolders.get(0);
+        } else if (classFolders.size() > 1) {
+            outputLocation= getDefaultOutputLocation();
+            fResultStatus= new Status(IStatus.WARNING, Activator.PLUGIN_ID,
+                    MessageFormat.format("Class files were found in several folders ({0}), so the output folder could not be detected; using {1}",
+                            new Object[] { join(classFolders), outputLocation }));
+        } else if (sourceFolders.size() == 1 && sourceFolders.get(0).equals(projectPath)) {
+            outputLocation= projectPath;
+        } else {
+            outputLocation= getDefaultOutputLocation();
+        }
+
+        List<IClasspathEntry> entries= new ArrayList<IClasspathEntry>();
+        for(IPath folder: sourceFolders) {
+            // Exclude nested source folders and a nested output folder
+            List<IPath> exclusions= new ArrayList<IPath>();
+            for(IPath other: sourceFolders) {
+                if (!other.equals(folder) && folder.isPrefixOf(other)) {
+                    exclusions.add(other.removeFirstSegments(folder.segmentCount()).addTrailingSeparator());
+                }
+            }
+            if (!outputLocation.equals(folder) && folder.isPrefixOf(outputLocation)) {
+                exclusions.add(outputLocation.removeFirstSegments(folder.segmentCount()).addTrailingSeparator());
+            }
+            entries.add(JavaCore.newSourceEntry(folder, exclusions.toArray(new IPath[exclusions.size()])));
+        }
+        for(IPath library: sorted(fLibraries)) {
+            entries.add(JavaCore.newLibraryEntry(library, null, null));
+        }
+        for(int i= 0; i < fDefaultEntries.length; i++) {
+            entries.add(fDefaultEntries[i]);
+        }
+        fResultClasspath= entries.toArray(new IClasspathEntry[entries.size()]);
+        fResultOutputLocation= outputLocation;
+    }
+
+    private IPath getDefaultOutputLocation() {
+        if (fDefaultOutputLocation != null) {
+            return fDefaultOutputLocation;
+        }
+        return fProject.getFullPath().append("bin"); //$NON-NLS-1$
+    }
+
+    private static String join(List<IPath> paths) {
+        StringBuilder sb= new StringBuilder();
+        for(IPath path: paths) {
+            if (sb.length() > 0) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+            sb.append(path);
+        }
+        return sb.toString();
+    }
+
+    private static List<IPath> sorted(ConcurrentHashMap<IPath, Boolean> paths) {
+        List<IPath> result= new ArrayList<IPath>(paths.keySet());
+        Collections.sort(result, PATH_ORDER);
+        return result;
+    }
+}
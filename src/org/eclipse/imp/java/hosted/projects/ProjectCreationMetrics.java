@@ -0,0 +1,196 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.imp.java.hosted.Activator;
+
+/**
+ * Accumulates timings of the phases of project creation (see the PHASE_ constants of
+ * JavaHostedProjectCreator and ProjectTemplateStore), and counters of notable events,
+ * for all projects created since startup (or the last reset()), whether headlessly or by
+ * the new project wizard. If the "org.eclipse.imp.java.hosted/debug/projectCreation"
+ * tracing option is on, each recorded phase and counter is also traced to standard
+ * output.
+ */
+public class ProjectCreationMetrics {
+    public static final String TRACE_OPTION= Activator.PLUGIN_ID + "/debug/projectCreation"; //$NON-NLS-1$
+
+    public static final String COUNTER_PROJECTS_CREATED= "projectsCreated";
+
+    public static final String COUNTER_TEMPLATE_PROJECTS= "projectsFromTemplates";
+
+    public static final String COUNTER_DETECTION_CACHE_HITS= "detectionCacheHits";
+
+    public static final String COUNTER_DETECTION_CACHE_MISSES= "detectionCacheMisses";
+
+    /**
+     * Cumulative timings of one phase.
+     */
+    public static class PhaseStats {
+        private int fCount;
+
+        private long fTotalNanos;
+
+        private long fMaxNanos;
+
+        private long fLastNanos;
+
+        private PhaseStats() { }
+
+        private PhaseStats(PhaseStats other) {
+            fCount= other.fCount;
+            fTotalNanos= other.fTotalNanos;
+            fMaxNanos= other.fMaxNanos;
+            fLastNanos= other.fLastNanos;
+        }
+
+        private void add(long nanos) {
+            fCount++;
+            fTotalNanos+= nanos;
+            fMaxNanos= Math.max(fMaxNanos, nanos);
+            fLastNanos= nanos;
+        }
+
+        public int getCount() {
+            return fCount;
+        }
+
+        public long getTotalNanos() {
+            return fTotalNanos;
+        }
+
+        public long getMeanNanos() {
+            return (fCount > 0) ? fTotalNanos / fCount : 0;
+        }
+
+        public long getMaxNanos() {
+            return fMaxNanos;
+        }
+
+        public long getLastNanos() {
+            return fLastNanos;
+        }
+
+        public String toString() {
+            return "count=" + fCount + ", total=" + (fTotalNanos / 1000) + "us, mean=" + (getMeanNanos() / 1000) + "us, max=" + (fMaxNanos / 1000) + "us";
+        }
+    }
+
+    private static final ProjectCreationMetrics sInstance= new ProjectCreationMetrics();
+
+    private final Map<String, PhaseStats> fPhases= new LinkedHashMap<String, PhaseStats>();
+
+    private final Map<String, Long> fCounters= new LinkedHashMap<String, Long>();
+
+    private volatile Boolean fTracing;
+
+    public static ProjectCreationMetrics getInstance() {
+        return sInstance;
+    }
+
+    private ProjectCreationMetrics() { }
+
+    /**
+     * Records the time spent in the given phase of the creation of the named project.
+     */
+    public void recordPhase(String projectName, String phase, long nanos) {
+        synchronized (this) {
+            PhaseStats stats= fPhases.get(phase);
+            if (stats == null) {
+                fPhases.put(phase, stats= new PhaseStats());
+            }
+            stats.add(nanos);
+        }
+        if (isTracing()) {
+            trace(projectName + ": " + phase + " took " + (nanos / 1000) + " us");
+        }
+    }
+
+    public void increment(String counter) {
+        long value;
+        synchronized (this) {
+            Long prev= fCounters.get(counter);
+            value= (prev != null ? prev.longValue() : 0) + 1;
+            fCounters.put(counter, Long.valueOf(value));
+        }
+        if (isTracing()) {
+            trace(counter + " = " + value);
+        }
+    }
+
+    /**
+     * @return a snapshot of the timings of the given phase, or null if it never ran
+     */
+    public synchronized PhaseStats getPhaseStats(String phase) {
+        PhaseStats stats= fPhases.get(phase);
+        return (stats != null) ? new PhaseStats(stats) : null;
+    }
+
+    /**
+     * @return a snapshot of the timings of all phases, in the order in which they first ran
+     */
+    public synchronized Map<String, PhaseStats> getPhaseStats() {
+        Map<String, PhaseStats> result= new LinkedHashMap<String, PhaseStats>();
+        for(Map.Entry<String, PhaseStats> entry: fPhases.entrySet()) {
+            result.put(entry.getKey(), new PhaseStats(entry.getValue()));
+        }
+        return result;
+    }
+
+    public synchronized long getCounter(String counter) {
+        Long value= fCounters.get(counter);
+        return (value != null) ? value.longValue() : 0;
+    }
+
+    public synchronized Map<String, Long> getCounters() {
+        return new LinkedHashMap<String, Long>(fCounters);
+    }
+
+    public synchronized void reset() {
+        fPhases.clear();
+        fCounters.clear();
+    }
+
+    /**
+     * @return a human-readable summary of all phases and counters, one per line
+     */
+    public synchronized String report() {
+        StringBuilder sb= new StringBuilder();
+        for(Map.Entry<String, PhaseStats> entry: fPhases.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        for(Map.Entry<String, Long> entry: fCounters.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return true if the project creation tracing option is on. The debug options are
+     * read directly, so the answer doesn't depend on whether the plug-in has started yet.
+     */
+    public boolean isTracing() {
+        Boolean tracing= fTracing;
+
+        if (tracing == null) {
+            fTracing= tracing= Boolean.valueOf(Activator.isTracing(TRACE_OPTION));
+        }
+        return tracing.booleanValue();
+    }
+
+    private void trace(String message) {
+        System.out.println("[" + TRACE_OPTION + "] " + message); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
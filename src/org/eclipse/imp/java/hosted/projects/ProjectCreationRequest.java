@@ -0,0 +1,183 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.core.IClasspathEntry;
+
+/**
+ * Describes a Java-hosted project to be created by the JavaHostedProjectCreator: its
+ * name and location, its folder layout, its language runtime classpath entries, its
+ * compliance level and its natures.
+ */
+public class ProjectCreationRequest {
+    public enum Layout {
+        /**
+         * Use the project folder as the root for sources and class files
+         */
+        PROJECT_ROOT,
+
+        /**
+         * Create separate folders for sources and class files
+         */
+        SRC_BIN,
+
+        /**
+         * Detect the source and output folders of existing sources in the project location
+         */
+        DETECT
+    }
+
+    private final String fProjectName;
+
+    private URI fLocationURI;
+
+    private Layout fLayout= Layout.SRC_BIN;
+
+    private String fSourceFolderName= "src";
+
+    private String fOutputFolderName= "bin";
+
+    private String fCompliance;
+
+    private List<IClasspathEntry> fRuntimeEntries= new ArrayList<IClasspathEntry>();
+
+    private ILanguageNature fNature;
+
+    private List<String> fNatureIds= new ArrayList<String>();
+
+    private ParallelClasspathDetector.IDetectionListener fDetectionListener;
+
+    private String fTemplateId;
+
+    public ProjectCreationRequest(String projectName) {
+        fProjectName= projectName;
+    }
+
+    public String getProjectName() {
+        return fProjectName;
+    }
+
+    /**
+     * @return the location of the project contents, or null for the default location in the workspace
+     */
+    public URI getLocationURI() {
+        return fLocationURI;
+    }
+
+    public void setLocationURI(URI locationURI) {
+        fLocationURI= locationURI;
+    }
+
+    public Layout getLayout() {
+        return fLayout;
+    }
+
+    public void setLayout(Layout layout) {
+        fLayout= layout;
+    }
+
+    /**
+     * @return the project-relative path of the source folder, for the SRC_BIN layout
+     */
+    public String getSourceFolderName() {
+        return fSourceFolderName;
+    }
+
+    public void setSourceFolderName(String name) {
+        fSourceFolderName= name;
+    }
+
+    /**
+     * @return the project-relative path of the output folder, for the SRC_BIN layout
+     */
+    public String getOutputFolderName() {
+        return fOutputFolderName;
+    }
+
+    public void setOutputFolderName(String name) {
+        fOutputFolderName= name;
+    }
+
+    /**
+     * @return the compliance level (e.g. JavaCore.VERSION_1_5), or null to leave the
+     * workspace's compliance options in effect
+     */
+    public String getCompliance() {
+        return fCompliance;
+    }
+
+    public void setCompliance(String compliance) {
+        fCompliance= compliance;
+    }
+
+    /**
+     * @return the classpath entries for the language-specific runtime
+     */
+    public List<IClasspathEntry> getRuntimeEntries() {
+        return fRuntimeEntries;
+    }
+
+    public void setRuntimeEntries(List<IClasspathEntry> entries) {
+        fRuntimeEntries= (entries != null) ? entries : new ArrayList<IClasspathEntry>();
+    }
+
+    /**
+     * @return the language's project nature, or null
+     */
+    public ILanguageNature getNature() {
+        return fNature;
+    }
+
+    public void setNature(ILanguageNature nature) {
+        fNature= nature;
+    }
+
+    /**
+     * @return the IDs of any additional natures to add to the project
+     */
+    public List<String> getNatureIds() {
+        return fNatureIds;
+    }
+
+    public void addNatureId(String natureId) {
+        fNatureIds.add(natureId);
+    }
+
+    public ParallelClasspathDetector.IDetectionListener getDetectionListener() {
+        return fDetectionListener;
+    }
+
+    /**
+     * Sets the listener to be notified of source folders, class folders and libraries as
+     * they are found, for the DETECT layout.
+     */
+    public void setDetectionListener(ParallelClasspathDetector.IDetectionListener listener) {
+        fDetectionListener= listener;
+    }
+
+    public String getTemplateId() {
+        return fTemplateId;
+    }
+
+    /**
+     * Sets the ID of the ProjectTemplateStore template from which to stamp out the project,
+     * if it exists, instead of configuring it step by step. Only the project name and
+     * location are then used.
+     */
+    public void setTemplateId(String templateId) {
+        fTemplateId= templateId;
+    }
+}
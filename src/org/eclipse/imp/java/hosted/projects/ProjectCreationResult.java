@@ -0,0 +1,110 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.imp.java.hosted.Activator;
+import org.eclipse.jdt.core.IClasspathEntry;
+
+/**
+ * The outcome of creating a project with the JavaHostedProjectCreator: the project,
+ * its classpath and output location, a status describing recoverable problems, and the time spent in
+ * each phase of creation.
+ */
+public class ProjectCreationResult {
+    private final IProject fProject;
+
+    private IStatus fStatus= Status.OK_STATUS;
+
+    private IClasspathEntry[] fClasspath;
+
+    private IPath fOutputLocation;
+
+    private final Map<String, Long> fPhaseTimes= new LinkedHashMap<String, Long>();
+
+    public ProjectCreationResult(IProject project) {
+        fProject= project;
+    }
+
+    public IProject getProject() {
+        return fProject;
+    }
+
+    /**
+     * @return OK, or an INFO or WARNING status describing recoverable problems (e.g. a
+     * corrupt .project file that was replaced, or an output folder that couldn't be
+     * detected); a MultiStatus if there were several
+     */
+    public IStatus getStatus() {
+        return fStatus;
+    }
+
+    void addStatus(IStatus status) {
+        if (fStatus.isOK()) {
+            fStatus= status;
+            return;
+        }
+        if (!fStatus.isMultiStatus()) {
+            MultiStatus multi= new MultiStatus(Activator.PLUGIN_ID, 0, "Problems occurred while creating project " + fProject.getName(), null);
+            multi.add(fStatus);
+            fStatus= multi;
+        }
+        ((MultiStatus) fStatus).add(status);
+    }
+
+    /**
+     * @return the raw classpath computed for the project, or null if the project's existing
+     * .classpath was kept
+     */
+    public IClasspathEntry[] getClasspath() {
+        return fClasspath;
+    }
+
+    /**
+     * @return the output location computed for the project, or null if the project's existing
+     * .classpath was kept
+     */
+    public IPath getOutputLocation() {
+        return fOutputLocation;
+    }
+
+    void setClasspath(IClasspathEntry[] classpath, IPath outputLocation) {
+        fClasspath= classpath;
+        fOutputLocation= outputLocation;
+    }
+
+    /**
+     * @return the time spent in each phase, in nanoseconds, keyed by the phase names
+     * defined in JavaHostedProjectCreator, in the order in which the phases ran
+     */
+    public Map<String, Long> getPhaseTimes() {
+        return Collections.unmodifiableMap(fPhaseTimes);
+    }
+
+    /**
+     * Adds the given time to the given phase, both for this result and in the
+     * ProjectCreationMetrics.
+     */
+    public void addPhaseTime(String phase, long nanos) {
+        Long prev= fPhaseTimes.get(phase);
+        fPhaseTimes.put(phase, Long.valueOf((prev != null ? prev.longValue() : 0) + nanos));
+        ProjectCreationMetrics.getInstance().recordPhase(fProject.getName(), phase, nanos);
+    }
+}
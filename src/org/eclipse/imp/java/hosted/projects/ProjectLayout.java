@@ -0,0 +1,146 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+
+/**
+ * Describes the folder tree of a project: its source folders and its (derived) output
+ * folders, as project-relative paths. materialize() creates all of the folders that
+ * don't exist yet, together with their parents, in a single workspace operation, so
+ * that the whole tree appears in one resource delta.
+ */
+public class ProjectLayout {
+    private final Map<IPath, Boolean> fFolders= new LinkedHashMap<IPath, Boolean>(); // folder -> derived?
+
+    private final List<IPath> fSourceFolders= new ArrayList<IPath>();
+
+    private final List<IPath> fOutputFolders= new ArrayList<IPath>();
+
+    /**
+     * @return the layout of the folders of the given classpath's source entries and
+     * output locations that lie inside the given project
+     */
+    public static ProjectLayout fromClasspath(IProject project, IClasspathEntry[] entries, IPath outputLocation) {
+        ProjectLayout layout= new ProjectLayout();
+        IPath projectPath= project.getFullPath();
+
+        for(int i= 0; i < entries.length; i++) {
+            IClasspathEntry entry= entries[i];
+
+            if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && projectPath.isPrefixOf(entry.getPath())) {
+                layout.addSourceFolder(entry.getPath().removeFirstSegments(projectPath.segmentCount()));
+                if (entry.getOutputLocation() != null && projectPath.isPrefixOf(entry.getOutputLocation())) {
+                    layout.addOutputFolder(entry.getOutputLocation().removeFirstSegments(projectPath.segmentCount()));
+                }
+            }
+        }
+        if (outputLocation != null && projectPath.isPrefixOf(outputLocation)) {
+            layout.addOutputFolder(outputLocation.removeFirstSegments(projectPath.segmentCount()));
+        }
+        return layout;
+    }
+
+    public ProjectLayout addSourceFolder(String path) {
+        return addSourceFolder(new Path(path));
+    }
+
+    public ProjectLayout addSourceFolder(IPath path) {
+        path= path.makeRelative();
+        fSourceFolders.add(path);
+        addFolder(path, false);
+        return this;
+    }
+
+    public ProjectLayout addOutputFolder(String path) {
+        return addOutputFolder(new Path(path));
+    }
+
+    /**
+     * Adds an output folder, which (along with any parents it needs) is created as derived.
+     */
+    public ProjectLayout addOutputFolder(IPath path) {
+        path= path.makeRelative();
+        fOutputFolders.add(path);
+        addFolder(path, true);
+        return this;
+    }
+
+    /**
+     * Adds a folder that is neither a source nor an output folder.
+     */
+    public ProjectLayout addFolder(IPath path, boolean derived) {
+        path= path.makeRelative();
+        if (path.segmentCount() > 0 && !fFolders.containsKey(path)) {
+            fFolders.put(path, Boolean.valueOf(derived));
+        }
+        return this;
+    }
+
+    public List<IPath> getSourceFolders() {
+        return Collections.unmodifiableList(fSourceFolders);
+    }
+
+    public List<IPath> getOutputFolders() {
+        return Collections.unmodifiableList(fOutputFolders);
+    }
+
+    /**
+     * Creates all of the folders of this layout (and their parents) that don't yet exist
+     * in the given project, which must exist and be open, in one workspace operation.
+     */
+    public void materialize(final IProject project, IProgressMonitor monitor) throws CoreException {
+        if (fFolders.isEmpty()) {
+            return;
+        }
+        IWorkspace workspace= project.getWorkspace();
+
+        workspace.run(new IWorkspaceRunnable() {
+            public void run(IProgressMonitor monitor) throws CoreException {
+                monitor.beginTask("", fFolders.size()); //$NON-NLS-1$
+                try {
+                    for(Map.Entry<IPath, Boolean> folder: fFolders.entrySet()) {
+                        createFolder(project.getFolder(folder.getKey()), folder.getValue().booleanValue());
+                        monitor.worked(1);
+                    }
+                } finally {
+                    monitor.done();
+                }
+            }
+        }, project, IWorkspace.AVOID_UPDATE, monitor != null ? monitor : new NullProgressMonitor());
+    }
+
+    private static void createFolder(IFolder folder, boolean derived) throws CoreException {
+        if (!folder.exists()) {
+            if (folder.getParent() instanceof IFolder) {
+                createFolder((IFolder) folder.getParent(), derived);
+            }
+            folder.create(derived ? (IResource.FORCE | IResource.DERIVED) : IResource.FORCE, true, null);
+        }
+    }
+}
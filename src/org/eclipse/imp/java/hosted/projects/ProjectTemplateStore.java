@@ -0,0 +1,400 @@
+/*******************************************************************************
+* Copyright (c) 2026 agent and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*    agent (agent@local) - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.imp.java.hosted.projects;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.imp.java.hosted.Activator;
+
+/**
+ * Stores project templates: compressed snapshots of the metadata (.project, .classpath,
+ * .settings) and skeleton files of fully configured projects, kept in the plugin's state
+ * location. New projects are stamped out of a template by writing its files directly
+ * to the project's location (with the project name in .project replaced), then creating
+ * the project and opening it, which refreshes it once, instead of running the whole
+ * configuration pipeline of the JavaHostedProjectCreator for each one.
+ * <p>
+ * Derived resources (e.g. output folders) are not captured, except that derived folders
+ * are recreated empty, and marked derived again.
+ */
+public class ProjectTemplateStore {
+    public static final String PHASE_UNPACK_TEMPLATE= "unpackTemplate";
+
+    public static final String PHASE_REFRESH= "refresh";
+
+    private static final String TEMPLATES_DIR= "templates"; //$NON-NLS-1$
+
+    private static final String TEMPLATE_EXTENSION= ".zip"; //$NON-NLS-1$
+
+    private static final String MANIFEST_ENTRY= "META-INF/template.properties"; //$NON-NLS-1$
+
+    private static final String PROJECT_NAME_KEY= "projectName"; //$NON-NLS-1$
+
+    private static final String DERIVED_FOLDER_KEY= "derivedFolder."; //$NON-NLS-1$
+
+    private static final String FILENAME_PROJECT= ".project"; //$NON-NLS-1$
+
+    private static ProjectTemplateStore sInstance;
+
+    private final File fTemplatesDir;
+
+    /**
+     * @return the template store in the plugin's state location, or null if the plugin
+     * isn't active
+     */
+    public static synchronized ProjectTemplateStore getInstance() {
+        if (sInstance == null) {
+            Activator plugin= Activator.getDefault();
+
+            if (plugin == null) {
+                return null;
+            }
+            sInstance= new ProjectTemplateStore(plugin.getStateLocation().append(TEMPLATES_DIR).toFile());
+        }
+        return sInstance;
+    }
+
+    public ProjectTemplateStore(File templatesDir) {
+        fTemplatesDir= templatesDir;
+    }
+
+    public boolean hasTemplate(String templateId) {
+        return getTemplateFile(templateId).exists();
+    }
+
+    public void removeTemplate(String templateId) {
+        getTemplateFile(templateId).delete();
+    }
+
+    /**
+     * Captures the current metadata and (non-derived) files of the given project as the
+     * template with the given ID, replacing any existing template with that ID.
+     */
+    public void captureTemplate(String templateId, final IProject project, IProgressMonitor monitor) throws CoreException {
+        File templateFile= getTemplateFile(templateId);
+        File tmpFile= new File(templateFile.getPath() + ".tmp"); //$NON-NLS-1$
+        final Properties manifest= new Properties();
+        final List<IResource> resources= new ArrayList<IResource>();
+
+        manifest.setProperty(PROJECT_NAME_KEY, project.getName());
+        project.accept(new IResourceVisitor() {
+            private int fDerivedCount= 0;
+
+            public boolean visit(IResource resource) throws CoreException {
+                if (resource == project) {
+                    return true;
+                }
+                if (resource.isLinked() || resource.isTeamPrivateMember()) {
+                    return false;
+                }
+                if (resource.isDerived()) {
+                    if (resource.getType() == IResource.FOLDER) {
+                        manifest.setProperty(DERIVED_FOLDER_KEY + (fDerivedCount++), resource.getProjectRelativePath().toPortableString());
+                    }
+                    return false;
+                }
+                resources.add(resource);
+                return true;
+            }
+        });
+
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        monitor.beginTask("Capturing template " + templateId + "...", resources.size() + 1);
+        try {
+            fTemplatesDir.mkdirs();
+            ZipOutputStream zos= new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try {
+                zos.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+                manifest.store(zos, templateId);
+                zos.closeEntry();
+                for(IResource resource: resources) {
+                    String path= resource.getProjectRelativePath().toPortableString();
+
+                    if (resource.getType() == IResource.FOLDER) {
+                        zos.putNextEntry(new ZipEntry(path + "/")); //$NON-NLS-1$
+                    } else {
+                        zos.putNextEntry(new ZipEntry(path));
+                        copy(((IFile) resource).getContents(true), zos);
+                    }
+                    zos.closeEntry();
+                    monitor.worked(1);
+                }
+            } finally {
+                zos.close();
+            }
+            templateFile.delete();
+            if (!tmpFile.renameTo(templateFile)) {
+                throw new IOException("Unable to rename " + tmpFile + " to " + templateFile);
+            }
+        } catch (IOException e) {
+            tmpFile.delete();
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Unable to capture template " + templateId, e));
+        } finally {
+            monitor.done();
+        }
+    }
+
+    /**
+     * Creates and opens the project described by the given request (of which only the name
+     * and location are used) from the template with the given ID. Refuses to unpack the
+     * template into a location that already has contents. If the project can't be created
+     * or opened, or the monitor is cancelled, the unpacked files are removed again, so that
+     * the creation can be retried.
+     */
+    public ProjectCreationResult createFromTemplate(String templateId, ProjectCreationRequest request, IProgressMonitor monitor) throws CoreException {
+        final IProject project= ResourcesPlugin.getWorkspace().getRoot().getProject(request.getProjectName());
+        final URI locationURI= request.getLocationURI();
+        final ProjectCreationResult result= new ProjectCreationResult(project);
+        URI realLocation= JavaHostedProjectCreator.getRealLocation(project, locationURI);
+
+        if (project.exists()) {
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Project " + project.getName() + " already exists"));
+        }
+        if (!"file".equals(realLocation.getScheme())) { //$NON-NLS-1$
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Templates can only be used for projects on the local file system"));
+        }
+        File targetDir= new File(realLocation);
+        boolean dirExisted= targetDir.exists();
+        boolean succeeded= false;
+        String[] existing= targetDir.list();
+
+        if (existing != null && existing.length > 0) {
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Project location " + targetDir + " is not empty"));
+        }
+        if (monitor == null) {
+            monitor= new NullProgressMonitor();
+        }
+        monitor.beginTask("Creating project " + project.getName() + " from template " + templateId + "...", 4);
+        try {
+            long start= System.nanoTime();
+            final List<IPath> derivedFolders= unpack(templateId, targetDir, project.getName());
+            result.addPhaseTime(PHASE_UNPACK_TEMPLATE, System.nanoTime() - start);
+            monitor.worked(1);
+
+            IWorkspace workspace= project.getWorkspace();
+            workspace.run(new IWorkspaceRunnable() {
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    monitor.beginTask("", 3); //$NON-NLS-1$
+                    try {
+                        long start= System.nanoTime();
+                        IProjectDescription desc= project.getWorkspace().newProjectDescription(project.getName());
+
+                        desc.setLocationURI(locationURI);
+                        project.create(desc, new SubProgressMonitor(monitor, 1));
+                        result.addPhaseTime(JavaHostedProjectCreator.PHASE_CREATE_PROJECT, System.nanoTime() - start);
+
+                        // Opening a newly created project reads the unpacked .project and refreshes
+                        // the project's contents, all in one pass
+                        start= System.nanoTime();
+                        project.open(new SubProgressMonitor(monitor, 2));
+                        for(IPath path: derivedFolders) {
+                            IFolder folder= project.getFolder(path);
+                            if (folder.exists()) {
+                                folder.setDerived(true);
+                            }
+                        }
+                        result.addPhaseTime(PHASE_REFRESH, System.nanoTime() - start);
+                    } finally {
+                        monitor.done();
+                    }
+                }
+            }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, new SubProgressMonitor(monitor, 3));
+            succeeded= true;
+        } catch (IOException e) {
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Unable to create project " + project.getName() + " from template " + templateId, e));
+        } finally {
+            if (!succeeded) {
+                discard(project, targetDir, dirExisted);
+            }
+            monitor.done();
+        }
+        return result;
+    }
+
+    /**
+     * Removes what a failed or cancelled createFromTemplate() left behind: the project, if
+     * it got created, and the unpacked files, leaving the location as it was before, i.e.
+     * either absent or empty.
+     */
+    private static void discard(IProject project, File targetDir, boolean keepDir) {
+        try {
+            if (project.exists()) {
+                project.delete(IResource.NEVER_DELETE_PROJECT_CONTENT | IResource.FORCE, null);
+            }
+            IFileStore store= EFS.getLocalFileSystem().fromLocalFile(targetDir);
+
+            if (keepDir) {
+                IFileStore[] children= store.childStores(EFS.NONE, null);
+
+                for(int i= 0; i < children.length; i++) {
+                    children[i].delete(EFS.NONE, null);
+                }
+            } else {
+                store.delete(EFS.NONE, null);
+            }
+        } catch (CoreException e) {
+            Activator.logException("Unable to clean up after failing to create project " + project.getName(), e);
+        }
+    }
+
+    /**
+     * Writes the files of the given template into the given directory, with the project
+     * name in .project replaced by the given one. Entries that would resolve outside of the
+     * directory are rejected.
+     * @return the project-relative paths of the template's derived folders
+     */
+    private List<IPath> unpack(String templateId, File targetDir, String projectName) throws IOException {
+        List<IPath> derivedFolders= new ArrayList<IPath>();
+        String templateProjectName= null;
+        byte[] projectFile= null;
+        ZipInputStream zis= new ZipInputStream(new BufferedInputStream(new FileInputStream(getTemplateFile(templateId))));
+
+        try {
+            ZipEntry entry;
+            while ((entry= zis.getNextEntry()) != null) {
+                String name= entry.getName();
+
+                if (name.equals(MANIFEST_ENTRY)) {
+                    Properties manifest= new Properties();
+                    ByteArrayOutputStream bos= new ByteArrayOutputStream();
+
+                    copy(zis, bos, false);
+                    manifest.load(new ByteArrayInputStream(bos.toByteArray()));
+                    templateProjectName= manifest.getProperty(PROJECT_NAME_KEY);
+                    String folder;
+                    for(int i= 0; (folder= manifest.getProperty(DERIVED_FOLDER_KEY + i)) != null; i++) {
+                        derivedFolders.add(Path.fromPortableString(folder));
+                        resolve(targetDir, folder).mkdirs();
+                    }
+                } else if (entry.isDirectory()) {
+                    resolve(targetDir, name).mkdirs();
+                } else if (name.equals(FILENAME_PROJECT)) {
+                    ByteArrayOutputStream bos= new ByteArrayOutputStream();
+                    copy(zis, bos, false);
+                    projectFile= bos.toByteArray(); // written last, once the template's project name is known
+                } else {
+                    File file= resolve(targetDir, name);
+                    file.getParentFile().mkdirs();
+                    copy(zis, new BufferedOutputStream(new FileOutputStream(file)), true);
+                }
+            }
+        } finally {
+            zis.close();
+        }
+        if (projectFile != null) {
+            OutputStream os= new FileOutputStream(new File(targetDir, FILENAME_PROJECT));
+            try {
+                os.write(renameProject(projectFile, templateProjectName, projectName));
+            } finally {
+                os.close();
+            }
+        }
+        return derivedFolders;
+    }
+
+    /**
+     * @return the file at the given template-relative path under the given directory
+     * @throws IOException if the path is absolute or leads outside of the directory
+     */
+    private File resolve(File targetDir, String relPath) throws IOException {
+        File file= new File(targetDir, relPath);
+        String dirPath= targetDir.getCanonicalPath() + File.separator;
+
+        if (new File(relPath).isAbsolute() || !file.getCanonicalPath().startsWith(dirPath)) {
+            throw new IOException("Template entry " + relPath + " lies outside of the project location");
+        }
+        return file;
+    }
+
+    /**
+     * @return the given .project contents, with the first &lt;name&gt; element, i.e.
+     * the project's name, replaced
+     */
+    private static byte[] renameProject(byte[] contents, String oldName, String newName) throws IOException {
+        String text= new String(contents, "UTF-8"); //$NON-NLS-1$
+        String oldElement= (oldName != null) ? "<name>" + escape(oldName) + "</name>" : null; //$NON-NLS-1$ //$NON-NLS-2$
+        int idx= (oldElement != null) ? text.indexOf(oldElement) : -1;
+
+        if (idx < 0) {
+            return contents;
+        }
+        return (text.substring(0, idx) + "<name>" + escape(newName) + "</name>" + text.substring(idx + oldElement.length())).getBytes("UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+    }
+
+    private File getTemplateFile(String templateId) {
+        return new File(fTemplatesDir, templateId + TEMPLATE_EXTENSION);
+    }
+
+    private static void copy(InputStream is, OutputStream os) throws IOException {
+        try {
+            copy(is, os, false);
+        } finally {
+            is.close();
+        }
+    }
+
+    private static void copy(InputStream is, OutputStream os, boolean closeOutput) throws IOException {
+        try {
+            byte[] buffer= new byte[8192];
+            int bytesRead;
+
+            while ((bytesRead= is.read(buffer)) != -1) {
+                os.write(buffer, 0, bytesRead);
+            }
+        } finally {
+            if (closeOutput) {
+                os.close();
+            }
+        }
+    }
+}